@@ -6,6 +6,7 @@ plugins {
     id("io.spring.dependency-management") version "1.0.11.RELEASE"
     id("org.unbroken-dome.test-sets") version "4.0.0"
     id("org.liquibase.gradle") version "2.1.0"
+    id("me.champeau.jmh") version "0.6.6"
     java
 }
 
@@ -27,9 +28,13 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-thymeleaf")
     implementation( "org.springframework.boot:spring-boot-starter-web")
     implementation( "org.springframework.boot:spring-boot-starter-data-jpa")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
     implementation("org.springframework.boot:spring-boot-starter-test")
     implementation("org.springframework.retry:spring-retry")
     implementation("org.springframework:spring-aspects")
+    implementation("org.hibernate:hibernate-jcache")
+    implementation("com.github.ben-manes.caffeine:jcache")
+    implementation("org.hibernate:hibernate-micrometer")
 
     implementation("org.apache.commons:commons-lang3")
     testImplementation("org.springframework.boot:spring-boot-starter-test")
@@ -89,6 +94,36 @@ testSets {
     }
 }
 
+dependencies {
+    // benchmarks reuse the fixtures in TestUtils
+    jmhImplementation(sourceSets.getByName("testCommon").output)
+}
+
+jmh {
+    jmhVersion.set("1.34")
+    profilers.set(listOf("gc")) // report allocation per operation
+    resultFormat.set("JSON")
+    resultsFile.set(project.file("$buildDir/results/jmh/results.json"))
+}
+
 tasks.withType<Test> {
     useJUnitPlatform()
+}
+
+tasks.named<Test>("integrationTest") {
+    useJUnitPlatform {
+        excludeTags("load")
+    }
+}
+
+// concurrent enlistment load suite; prints throughput & latency, and checks the seat counts afterwards
+tasks.register<Test>("loadTest") {
+    description = "Runs the enlistment load suite."
+    group = "verification"
+    testClassesDirs = sourceSets.getByName("integrationTest").output.classesDirs
+    classpath = sourceSets.getByName("integrationTest").runtimeClasspath
+    useJUnitPlatform {
+        includeTags("load")
+    }
+    testLogging.showStandardStreams = true
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.orangeandbronze.enlistment.controllers;
 
 import com.orangeandbronze.enlistment.domain.Days;
+import com.orangeandbronze.enlistment.domain.SectionRepository;
+import com.orangeandbronze.enlistment.domain.SectionSummary;
 import com.orangeandbronze.enlistment.domain.Student;
 import com.orangeandbronze.enlistment.domain.StudentRepository;
 import org.junit.jupiter.api.*;
@@ -9,18 +11,24 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.*;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import javax.servlet.http.HttpServletResponse;
 import java.time.LocalTime;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.NoSuchElementException;
+import java.util.*;
 import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
 
 import static com.orangeandbronze.enlistment.controllers.UserAction.*;
 import static com.orangeandbronze.enlistment.domain.TestUtils.*;
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.flash;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 // @Testcontainers for test containers and usage of Docker, and @DirtiesContext to dump / reset changes per method executed
 // to avoid interference with other test methods such as database manipulation (primary key already exists, etc.)
@@ -32,6 +40,10 @@ class EnlistControllerIT extends AbstractControllerIT {
 
     @Autowired
     private StudentRepository studentRepository;
+    @Autowired
+    private SectionRepository sectionRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
     private void initTempDatabase() {
         jdbcTemplate.update("INSERT INTO student (student_number, firstname, lastname) VALUES (?,?,?)",
@@ -53,7 +65,7 @@ class EnlistControllerIT extends AbstractControllerIT {
             // with a student object in session corresponding to the student record in the db
         Student student = studentRepository.findById(DEFAULT_STUDENT_NUMBER).orElseThrow(() ->
                 new NoSuchElementException("No student w/ student num " + DEFAULT_STUDENT_NUMBER + " found in DB."));
-        mockMvc.perform(post("/enlist").sessionAttr("student", student).param("sectionId", DEFAULT_SECTION_ID)
+        mockMvc.perform(post("/enlist").sessionAttr("studentNumber", student.getStudentNumber()).param("sectionId", DEFAULT_SECTION_ID)
                 .param("userAction", ENLIST.name()));
         // Then a new record in the student_sections, containing the corresponding studentNumber and sectionId
         int count = jdbcTemplate.queryForObject(
@@ -74,7 +86,7 @@ class EnlistControllerIT extends AbstractControllerIT {
             // with a student object in session corresponding to the student record in the db
         Student student = studentRepository.findById(DEFAULT_STUDENT_NUMBER).orElseThrow(() ->
                 new NoSuchElementException("No student w/ student num " + DEFAULT_STUDENT_NUMBER + " found in DB."));
-        mockMvc.perform(post("/enlist").sessionAttr("student", student).param("sectionId", DEFAULT_SECTION_ID)
+        mockMvc.perform(post("/enlist").sessionAttr("studentNumber", student.getStudentNumber()).param("sectionId", DEFAULT_SECTION_ID)
                 .param("userAction", CANCEL.name()));
         // Then a record containing the corresponding studentNumber and sectionId in the student_sections should be deleted
         int count = jdbcTemplate.queryForObject(
@@ -84,6 +96,169 @@ class EnlistControllerIT extends AbstractControllerIT {
         assertEquals(0, count);
     }
 
+    @Test
+    void showSections_enlisted_section_not_available() throws Exception {
+        // Given in the DB: a student & a section, and an enlistment record existing in student_sections
+        initTempDatabase();
+        jdbcTemplate.update("INSERT INTO student_sections (student_student_number, sections_section_id) "
+                + "VALUES (?, ?)", DEFAULT_STUDENT_NUMBER, DEFAULT_SECTION_ID);
+        Student student = studentRepository.findById(DEFAULT_STUDENT_NUMBER).orElseThrow(() ->
+                new NoSuchElementException("No student w/ student num " + DEFAULT_STUDENT_NUMBER + " found in DB."));
+        // When the GET method on path "/enlist" is invoked
+        Map<String, Object> model = mockMvc.perform(get("/enlist").sessionAttr("studentNumber", student.getStudentNumber()))
+                .andReturn().getModelAndView().getModel();
+        // Then the section should be listed among the enlisted sections and not among the available ones
+        Collection<SectionSummary> enlistedSections = (Collection<SectionSummary>) model.get("enlistedSections");
+        Collection<SectionSummary> availableSections = (Collection<SectionSummary>) model.get("availableSections");
+        assertAll(
+                () -> assertEquals(List.of(DEFAULT_SECTION_ID),
+                        enlistedSections.stream().map(SectionSummary::getSectionId).collect(Collectors.toList())),
+                () -> assertTrue(availableSections.stream().noneMatch(sec -> sec.getSectionId().equals(DEFAULT_SECTION_ID))),
+                () -> assertFalse(availableSections.isEmpty()) // sections from import.sql
+        );
+    }
+
+    @Test
+    void showEligibility_available_sections_annotated_as_json() throws Exception {
+        // Given in the DB: a student enlisted in a section on MTH 9:00 - 10:00 w/ no subjects taken, and the sections
+        // from import.sql, where ABC is on MTH 8:30 - 10:00, DEF needs Math1 & PQR is open
+        initTempDatabase();
+        jdbcTemplate.update("INSERT INTO student_sections (student_student_number, sections_section_id) "
+                + "VALUES (?, ?)", DEFAULT_STUDENT_NUMBER, DEFAULT_SECTION_ID);
+        Student student = studentRepository.findById(DEFAULT_STUDENT_NUMBER).orElseThrow(() ->
+                new NoSuchElementException("No student w/ student num " + DEFAULT_STUDENT_NUMBER + " found in DB."));
+        // When the GET method on path "/enlist/eligibility" is invoked
+        // Then each available section should be annotated w/ whether the student can enlist in it, & why not
+        mockMvc.perform(get("/enlist/eligibility").sessionAttr("studentNumber", student.getStudentNumber()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ABC").value("SCHEDULE_CONFLICT"))
+                .andExpect(jsonPath("$.DEF").value("MISSING_PREREQUISITES"))
+                .andExpect(jsonPath("$.PQR").value("ENLISTABLE"))
+                .andExpect(jsonPath("$." + DEFAULT_SECTION_ID).doesNotExist());
+    }
+
+    @Test
+    void showSections_bad_filter_redirects_w_message() throws Exception {
+        // Given in the DB: a student
+        initTempDatabase();
+        // When the GET method on path "/enlist" is invoked w/ a start time off the schedule grid
+        // Then the student should be redirected back to the enlistment page w/ the reason, not get a server error
+        mockMvc.perform(get("/enlist").param("start", "07:00").sessionAttr("studentNumber", DEFAULT_STUDENT_NUMBER))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("enlist"))
+                .andExpect(flash().attributeExists("enlistmentExceptionMessage"));
+    }
+
+    @Test
+    void submitWishList_saves_ranked_sections_without_taking_seats() throws Exception {
+        // Given in the DB: a student & a section, and the sections from import.sql
+        initTempDatabase();
+        Student student = studentRepository.findById(DEFAULT_STUDENT_NUMBER).orElseThrow(() ->
+                new NoSuchElementException("No student w/ student num " + DEFAULT_STUDENT_NUMBER + " found in DB."));
+        // When the POST method on path "/enlist/wishlist" is invoked w/ sections most wanted first, one of them twice
+        mockMvc.perform(post("/enlist/wishlist").sessionAttr("studentNumber", student.getStudentNumber())
+                .param("sectionIds", "PQR, " + DEFAULT_SECTION_ID + ",PQR"));
+        // Then the wish list should be shown in that order w/o the repeat, and no seats taken
+        Map<String, Object> model = mockMvc.perform(get("/enlist").sessionAttr("studentNumber", student.getStudentNumber()))
+                .andReturn().getModelAndView().getModel();
+        assertAll(
+                () -> assertEquals(List.of("PQR", DEFAULT_SECTION_ID), model.get("wishList")),
+                () -> assertEquals(0, countSeatsTaken("PQR")),
+                () -> assertEquals(0, countEnlisted(DEFAULT_SECTION_ID))
+        );
+    }
+
+    // each in a room of its own, so sections may share a schedule
+    private void insertSection(String sectionId, String subjectId, Days days, LocalTime start) {
+        jdbcTemplate.update("INSERT INTO subject (subject_id) VALUES (?)", subjectId);
+        jdbcTemplate.update("INSERT INTO room (name, capacity) VALUES (?, ?)", "Room" + sectionId, DEFAULT_ROOM_CAPACITY);
+        jdbcTemplate.update("INSERT INTO section (section_id, number_of_students, days, start_time, end_time, room_name, subject_subject_id) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                sectionId, 0, days.ordinal(), start, start.plusHours(1), "Room" + sectionId, subjectId);
+    }
+
+    private int countEnlisted(String sectionId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM student_sections WHERE student_student_number = ? " +
+                "AND sections_section_id = ?", Integer.class, DEFAULT_STUDENT_NUMBER, sectionId);
+    }
+
+    private int countSeatsTaken(String sectionId) {
+        return jdbcTemplate.queryForObject("SELECT number_of_students FROM section WHERE section_id = ?",
+                Integer.class, sectionId);
+    }
+
+    @Test
+    void enlistAll_enlist_student_in_selected_sections() throws Exception {
+        // Given in the DB: a student, & three sections that don't conflict w/ each other
+        initTempDatabase();
+        insertSection("SEC2", "Subject2", Days.TF, LocalTime.of(9, 0));
+        insertSection("SEC3", "Subject3", Days.MTH, LocalTime.of(13, 0));
+        Student student = studentRepository.findById(DEFAULT_STUDENT_NUMBER).orElseThrow(() ->
+                new NoSuchElementException("No student w/ student num " + DEFAULT_STUDENT_NUMBER + " found in DB."));
+        // When the POST method on path "/enlist/batch" is invoked w/ all three sectionIds
+        Map<String, Object> flash = mockMvc.perform(post("/enlist/batch").sessionAttr("studentNumber", student.getStudentNumber())
+                .param("sectionIds", "SEC3", DEFAULT_SECTION_ID, "SEC2")).andReturn().getFlashMap();
+        // Then the student should be enlisted in all three, each w/ its seat claimed
+        assertAll(
+                () -> assertEquals(Map.of(DEFAULT_SECTION_ID, EnlistController.BATCH_ENLISTED,
+                        "SEC2", EnlistController.BATCH_ENLISTED, "SEC3", EnlistController.BATCH_ENLISTED),
+                        flash.get("batchOutcomes")),
+                () -> assertEquals(1, countEnlisted(DEFAULT_SECTION_ID)),
+                () -> assertEquals(1, countEnlisted("SEC2")),
+                () -> assertEquals(1, countEnlisted("SEC3")),
+                () -> assertEquals(1, countSeatsTaken("SEC2"))
+        );
+    }
+
+    @Test
+    void enlistAll_conflicting_sections_enlists_none() throws Exception {
+        // Given in the DB: a student, a section, another at the same schedule & a third that conflicts w/ neither
+        initTempDatabase();
+        insertSection("SEC2", "Subject2", Days.MTH, LocalTime.of(9, 0));
+        insertSection("SEC3", "Subject3", Days.TF, LocalTime.of(9, 0));
+        Student student = studentRepository.findById(DEFAULT_STUDENT_NUMBER).orElseThrow(() ->
+                new NoSuchElementException("No student w/ student num " + DEFAULT_STUDENT_NUMBER + " found in DB."));
+        // When the POST method on path "/enlist/batch" is invoked w/ all three sectionIds
+        Map<String, Object> flash = mockMvc.perform(post("/enlist/batch").sessionAttr("studentNumber", student.getStudentNumber())
+                .param("sectionIds", DEFAULT_SECTION_ID, "SEC2", "SEC3")).andReturn().getFlashMap();
+        // Then the conflicting section should be reported, & the student enlisted in none of them
+        Map<String, String> outcomes = (Map<String, String>) flash.get("batchOutcomes");
+        assertAll(
+                () -> assertTrue(outcomes.get("SEC2").contains("overlap")),
+                () -> assertEquals(EnlistController.BATCH_NOT_ENLISTED, outcomes.get(DEFAULT_SECTION_ID)),
+                () -> assertEquals(EnlistController.BATCH_NOT_ENLISTED, outcomes.get("SEC3")),
+                () -> assertEquals(0, countEnlisted(DEFAULT_SECTION_ID)),
+                () -> assertEquals(0, countEnlisted("SEC3")),
+                () -> assertEquals(0, countSeatsTaken(DEFAULT_SECTION_ID)),
+                () -> assertEquals(0, countSeatsTaken("SEC3"))
+        );
+    }
+
+    @Test
+    void enlistOrCancel_swap_student_to_section_w_same_subject_and_schedule() throws Exception {
+        // Given in the DB: a student enlisted in a section, & another section of its subject at the same schedule
+        initTempDatabase();
+        jdbcTemplate.update("INSERT INTO student_sections (student_student_number, sections_section_id) "
+                + "VALUES (?, ?)", DEFAULT_STUDENT_NUMBER, DEFAULT_SECTION_ID);
+        jdbcTemplate.update("UPDATE section SET number_of_students = 1 WHERE section_id = ?", DEFAULT_SECTION_ID);
+        jdbcTemplate.update("INSERT INTO room (name, capacity) VALUES (?, ?)", "Room2", DEFAULT_ROOM_CAPACITY);
+        jdbcTemplate.update("INSERT INTO section (section_id, number_of_students, days, start_time, end_time, room_name, subject_subject_id) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                "SEC2", 0, Days.MTH.ordinal(), LocalTime.of(9, 0), LocalTime.of(10, 0), "Room2", DEFAULT_SUBJECT.toString());
+        Student student = studentRepository.findById(DEFAULT_STUDENT_NUMBER).orElseThrow(() ->
+                new NoSuchElementException("No student w/ student num " + DEFAULT_STUDENT_NUMBER + " found in DB."));
+        // When the POST method on path "/enlist" is invoked w/ UserAction "SWAP", the new sectionId & the old one
+        mockMvc.perform(post("/enlist").sessionAttr("studentNumber", student.getStudentNumber()).param("sectionId", "SEC2")
+                .param("userAction", SWAP.name()).param("oldSectionId", DEFAULT_SECTION_ID));
+        // Then the student should be enlisted in the new section instead of the old one, w/ the seat moved along
+        assertAll(
+                () -> assertEquals(0, countEnlisted(DEFAULT_SECTION_ID)),
+                () -> assertEquals(1, countEnlisted("SEC2")),
+                () -> assertEquals(0, countSeatsTaken(DEFAULT_SECTION_ID)),
+                () -> assertEquals(1, countSeatsTaken("SEC2"))
+        );
+    }
+
     private final static int FIRST_STUDENT_ID = 11;
     private final static int NUMBER_OF_STUDENTS = 20;
     private final static int LAST_STUDENT_NUMBER = FIRST_STUDENT_ID + NUMBER_OF_STUDENTS - 1;
@@ -123,12 +298,66 @@ class EnlistControllerIT extends AbstractControllerIT {
         initTempDatabaseConcurrency(1);
         // When each student enlists in separate section instances
         startEnlistmentThreads();
-        // Then only one student should be able to enlist successfully
+        // Then only one student should be able to enlist successfully, and only one seat should be taken
         int numStudents = jdbcTemplate.queryForObject(
                 "SELECT COUNT(*) FROM student_sections where sections_section_id = '" +
                         DEFAULT_SECTION_ID + "'", Integer.class
         );
-        assertEquals(1, numStudents);
+        int seatsTaken = jdbcTemplate.queryForObject(
+                "SELECT number_of_students FROM section WHERE section_id = ?", Integer.class, DEFAULT_SECTION_ID
+        );
+        assertAll(
+                () -> assertEquals(1, numStudents),
+                () -> assertEquals(1, seatsTaken)
+        );
+    }
+
+    @Test
+    void enlistOrCancel_enlist_concurrently_section_with_sharded_seats_students_beyond_capacity() throws Exception {
+        // Given several students, & a hot section w/ fewer seats, split across 4 seat shards
+        initTempDatabaseConcurrency(7);
+        transactionTemplate.executeWithoutResult(status -> sectionRepository.shardSeats(DEFAULT_SECTION_ID, 4));
+        // When the students enlist concurrently
+        startEnlistmentThreads();
+        // Then only as many students as there are seats should be enlisted, w/ every seat taken on some shard,
+        // and the shards' capacities still adding up to the room's
+        int numStudents = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM student_sections where sections_section_id = ?", Integer.class, DEFAULT_SECTION_ID
+        );
+        Map<String, Object> shards = jdbcTemplate.queryForMap("SELECT SUM(capacity) AS capacity, " +
+                "SUM(number_of_students) AS seats_taken FROM section_seat_shard WHERE section_id = ?", DEFAULT_SECTION_ID);
+        Map<String, Object> model = mockMvc.perform(get("/sections").param("id", "1"))
+                .andReturn().getModelAndView().getModel();
+        SectionSummary listed = ((Collection<SectionSummary>) model.get("sections")).stream()
+                .filter(section -> section.getSectionId().equals(DEFAULT_SECTION_ID)).findFirst().orElseThrow();
+        assertAll(
+                () -> assertEquals(7, numStudents),
+                () -> assertEquals(7, ((Number) shards.get("capacity")).intValue()),
+                () -> assertEquals(7, ((Number) shards.get("seats_taken")).intValue()),
+                () -> assertEquals(0, listed.getSeatsLeft())
+        );
+    }
+
+    @Test
+    void releaseSeat_taken_before_sharding_can_be_claimed_again() {
+        // Given a full section, all of whose seats were taken before it was split across 2 seat shards
+        initTempDatabase();
+        jdbcTemplate.update("UPDATE section SET number_of_students = ? WHERE section_id = ?",
+                DEFAULT_ROOM_CAPACITY, DEFAULT_SECTION_ID);
+        transactionTemplate.executeWithoutResult(status -> sectionRepository.shardSeats(DEFAULT_SECTION_ID, 2));
+        // When one of those seats is given back, then seats are claimed twice
+        int released = transactionTemplate.execute(status -> sectionRepository.releaseSeat(DEFAULT_SECTION_ID));
+        int claimedFirst = transactionTemplate.execute(status -> sectionRepository.claimSeat(DEFAULT_SECTION_ID));
+        int claimedSecond = transactionTemplate.execute(status -> sectionRepository.claimSeat(DEFAULT_SECTION_ID));
+        // Then the seat given back should be claimed again, & only it, w/ the section full again
+        int seatsTaken = jdbcTemplate.queryForObject("SELECT " + SectionRepository.SEATS_TAKEN +
+                " FROM section s WHERE s.section_id = ?", Integer.class, DEFAULT_SECTION_ID);
+        assertAll(
+                () -> assertEquals(1, released),
+                () -> assertEquals(1, claimedFirst),
+                () -> assertEquals(0, claimedSecond),
+                () -> assertEquals(DEFAULT_ROOM_CAPACITY, seatsTaken)
+        );
     }
 
     private void startEnlistmentThreads() throws Exception {
@@ -144,6 +373,8 @@ class EnlistControllerIT extends AbstractControllerIT {
     }
 
     private static class EnlistmentThread extends Thread {
+        private static final int SHED_BACKOFF_MILLIS = 10;
+
         private final Student student;
         private final CountDownLatch latch;
         private final MockMvc mockMvc;
@@ -162,8 +393,13 @@ class EnlistControllerIT extends AbstractControllerIT {
                 throw new RuntimeException(e);
             }
             try {
-                mockMvc.perform(post("/enlist").sessionAttr("student", student)
-                        .param("sectionId", DEFAULT_SECTION_ID).param("userAction", ENLIST.name()));
+                // shed requests are tried again, like a browser honoring Retry-After, as more students enlist at once
+                // than the concurrency limit lets in
+                while (mockMvc.perform(post("/enlist").sessionAttr("studentNumber", student.getStudentNumber())
+                        .param("sectionId", DEFAULT_SECTION_ID).param("userAction", ENLIST.name()))
+                        .andReturn().getResponse().getStatus() == HttpServletResponse.SC_SERVICE_UNAVAILABLE) {
+                    Thread.sleep(SHED_BACKOFF_MILLIS);
+                }
             } catch (Exception e) {
                 e.printStackTrace();
             }
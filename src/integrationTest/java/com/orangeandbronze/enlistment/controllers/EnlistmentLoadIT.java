@@ -0,0 +1,216 @@
+package com.orangeandbronze.enlistment.controllers;
+
+import com.orangeandbronze.enlistment.domain.Days;
+import com.orangeandbronze.enlistment.domain.SectionRepository;
+import com.orangeandbronze.enlistment.domain.Student;
+import com.orangeandbronze.enlistment.domain.StudentRepository;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.annotation.DirtiesContext;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.servlet.http.HttpServletResponse;
+
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.orangeandbronze.enlistment.controllers.UserAction.*;
+import static org.apache.commons.lang3.exception.ExceptionUtils.indexOfThrowable;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+// Load suite for the seat accounting path: thousands of concurrent ENLIST/CANCEL requests, then checks that every
+// section's seats taken, on its row & any seat shards, match its student_sections rows & never exceed its room's capacity.
+// Tagged "load" so it only runs with "./gradlew loadTest", not with the rest of the integration tests.
+@Tag("load")
+@Testcontainers
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@SpringBootTest
+@AutoConfigureMockMvc
+class EnlistmentLoadIT extends AbstractControllerIT {
+
+    private final static int FIRST_STUDENT_NUMBER = 1001; // after the students in import.sql
+    private final static int NUMBER_OF_STUDENTS = 400;
+    private final static int NUMBER_OF_SECTIONS = 50; // each in its own half-hour slot, so students never have conflicts
+    private final static int ROOM_CAPACITY = 5;
+    private final static int NUMBER_OF_THREADS = 32;
+    private final static int NUMBER_OF_OPERATIONS = 5000;
+    private final static double ENLIST_RATIO = 0.7;
+    // how long a client waits after being shed, like a browser honoring Retry-After but shorter, so the run stays quick
+    private final static int SHED_BACKOFF_MILLIS = 10;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    private void initTempDatabase() {
+        List<Object[]> students = new ArrayList<>();
+        for (int i = FIRST_STUDENT_NUMBER; i < FIRST_STUDENT_NUMBER + NUMBER_OF_STUDENTS; i++) {
+            students.add(new Object[]{i, "firstname", "lastname"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO student(student_number, firstname, lastname) VALUES (?, ?, ?)", students);
+        List<Object[]> rooms = new ArrayList<>();
+        List<Object[]> subjects = new ArrayList<>();
+        List<Object[]> sections = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_SECTIONS; i++) {
+            LocalTime start = LocalTime.of(8, 30).plusMinutes(30L * (i % 18));
+            rooms.add(new Object[]{"LoadRoom" + i, ROOM_CAPACITY});
+            subjects.add(new Object[]{"LoadSubject" + i});
+            sections.add(new Object[]{"LoadSection" + i, 0, Days.values()[i / 18].ordinal(), start, start.plusMinutes(30),
+                    "LoadRoom" + i, "LoadSubject" + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO room(name, capacity) VALUES (?, ?)", rooms);
+        jdbcTemplate.batchUpdate("INSERT INTO subject(subject_id) VALUES (?)", subjects);
+        jdbcTemplate.batchUpdate("INSERT INTO section(section_id, number_of_students, days, start_time, end_time, " +
+                "room_name, subject_subject_id) VALUES (?, ?, ?, ?, ?, ?, ?)", sections);
+    }
+
+    @Test
+    void enlistOrCancel_load_spread_across_sections() throws Exception {
+        // Given many students & sections
+        initTempDatabase();
+        // When the students concurrently enlist in & cancel random sections
+        LoadReport report = runLoad(NUMBER_OF_SECTIONS);
+        // Then the seat counts should be consistent w/ the enlistments
+        report.print("spread across " + NUMBER_OF_SECTIONS + " sections");
+        assertAll(
+                () -> assertEquals(0, report.optimisticLockFailures.get()),
+                () -> assertEquals(0, report.errors.get()),
+                this::assertSeatAccountingConsistent
+        );
+    }
+
+    @Test
+    void enlistOrCancel_load_hot_sections() throws Exception {
+        // Given many students & sections
+        initTempDatabase();
+        // When the students concurrently enlist in & cancel only a few popular sections
+        LoadReport report = runLoad(3);
+        // Then the seat counts should be consistent w/ the enlistments
+        report.print("on 3 hot sections");
+        assertAll(
+                () -> assertEquals(0, report.optimisticLockFailures.get()),
+                () -> assertEquals(0, report.errors.get()),
+                this::assertSeatAccountingConsistent
+        );
+    }
+
+    /**
+     * Sections sharded while under load (see HotSections) count their seats on the section row plus their shard rows,
+     * so the seats taken are compared as SectionRepository.SEATS_TAKEN counts them, & each shard is checked on its own
+     **/
+    private void assertSeatAccountingConsistent() {
+        List<Map<String, Object>> sections = jdbcTemplate.queryForList(
+                "SELECT s.section_id, " + SectionRepository.SEATS_TAKEN + " AS seats_taken, r.capacity, " +
+                        "(SELECT COUNT(*) FROM student_sections ss WHERE ss.sections_section_id = s.section_id) AS enlisted " +
+                        "FROM section s JOIN room r ON r.name = s.room_name");
+        int duplicates = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT 1 FROM student_sections " +
+                "GROUP BY student_student_number, sections_section_id HAVING COUNT(*) > 1) d", Integer.class);
+        assertEquals(0, duplicates, "students enlisted more than once in the same section");
+        for (Map<String, Object> section : sections) {
+            int seatsTaken = ((Number) section.get("seats_taken")).intValue();
+            int enlisted = ((Number) section.get("enlisted")).intValue();
+            int capacity = ((Number) section.get("capacity")).intValue();
+            assertEquals(enlisted, seatsTaken, "seats taken in section " + section.get("section_id"));
+            assertTrue(seatsTaken <= capacity, "section " + section.get("section_id") + " over capacity");
+        }
+        for (Map<String, Object> shard : jdbcTemplate.queryForList("SELECT * FROM section_seat_shard")) {
+            int numberOfStudents = ((Number) shard.get("number_of_students")).intValue();
+            assertTrue(numberOfStudents >= 0 && numberOfStudents <= ((Number) shard.get("capacity")).intValue(),
+                    "shard " + shard.get("shard") + " of section " + shard.get("section_id") + " out of its capacity");
+        }
+    }
+
+    /** Each thread gets its own students, so a student's requests are sequential, like clicks from one browser **/
+    private LoadReport runLoad(int numberOfSectionsTargeted) throws Exception {
+        List<List<Student>> studentsPerThread = new ArrayList<>();
+        for (int t = 0; t < NUMBER_OF_THREADS; t++) {
+            studentsPerThread.add(new ArrayList<>());
+        }
+        for (int i = FIRST_STUDENT_NUMBER; i < FIRST_STUDENT_NUMBER + NUMBER_OF_STUDENTS; i++) {
+            final int studentNo = i;
+            studentsPerThread.get(i % NUMBER_OF_THREADS).add(studentRepository.findById(studentNo).orElseThrow(() ->
+                    new NoSuchElementException("No student w/ student num " + studentNo + " found in DB.")));
+        }
+        LoadReport report = new LoadReport(NUMBER_OF_OPERATIONS);
+        AtomicInteger nextOperation = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (List<Student> students : studentsPerThread) {
+            futures.add(executor.submit(() -> {
+                latch.await();
+                Random random = ThreadLocalRandom.current();
+                for (int op = nextOperation.getAndIncrement(); op < NUMBER_OF_OPERATIONS; op = nextOperation.getAndIncrement()) {
+                    Student student = students.get(random.nextInt(students.size()));
+                    String sectionId = "LoadSection" + random.nextInt(numberOfSectionsTargeted);
+                    UserAction userAction = random.nextDouble() < ENLIST_RATIO ? ENLIST : CANCEL;
+                    long start = System.nanoTime();
+                    try {
+                        int status = mockMvc.perform(post("/enlist").sessionAttr("studentNumber", student.getStudentNumber())
+                                .param("sectionId", sectionId).param("userAction", userAction.name()))
+                                .andReturn().getResponse().getStatus();
+                        if (status == HttpServletResponse.SC_SERVICE_UNAVAILABLE) {
+                            report.shed.incrementAndGet(); // over the concurrency limit
+                            report.latencies[op] = LoadReport.SHED;
+                            Thread.sleep(SHED_BACKOFF_MILLIS);
+                            continue;
+                        }
+                    } catch (Exception e) {
+                        if (indexOfThrowable(e, ObjectOptimisticLockingFailureException.class) >= 0) {
+                            report.optimisticLockFailures.incrementAndGet();
+                        } else {
+                            report.errors.incrementAndGet();
+                            e.printStackTrace();
+                        }
+                    }
+                    report.latencies[op] = System.nanoTime() - start;
+                }
+                return null;
+            }));
+        }
+        long start = System.nanoTime();
+        latch.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        report.elapsedNanos = System.nanoTime() - start;
+        executor.shutdown();
+        return report;
+    }
+
+    private static class LoadReport {
+        private static final long SHED = -1; // latency of a request turned away by the concurrency limit
+
+        private final long[] latencies; // of every operation, SHED for those the server didn't serve
+        private final AtomicInteger optimisticLockFailures = new AtomicInteger();
+        private final AtomicInteger errors = new AtomicInteger();
+        private final AtomicInteger shed = new AtomicInteger();
+        private long elapsedNanos;
+
+        private LoadReport(int numberOfOperations) {
+            latencies = new long[numberOfOperations];
+        }
+
+        /** Throughput & latency percentiles are of the served requests only; shed ones are counted on their own **/
+        private void print(String scenario) {
+            long[] served = Arrays.stream(latencies).filter(latency -> latency != SHED).sorted().toArray();
+            System.out.printf("Enlistment load %s: %d ops in %d ms, %d served, %.1f served/s, p50 %.2f ms, " +
+                            "p99 %.2f ms, shed %d, optimistic lock failures %d, other errors %d%n",
+                    scenario, latencies.length, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), served.length,
+                    served.length / (elapsedNanos / 1e9), percentile(served, 50) / 1e6, percentile(served, 99) / 1e6,
+                    shed.get(), optimisticLockFailures.get(), errors.get());
+        }
+
+        private static long percentile(long[] sorted, int percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile / 100.0 * sorted.length) - 1)];
+        }
+    }
+}
@@ -2,22 +2,35 @@ package com.orangeandbronze.enlistment.controllers;
 
 import com.orangeandbronze.enlistment.domain.Admin;
 import com.orangeandbronze.enlistment.domain.AdminRepository;
+import com.orangeandbronze.enlistment.domain.AllocationReport;
 import com.orangeandbronze.enlistment.domain.Days;
+import com.orangeandbronze.enlistment.domain.ImportReport;
+import com.orangeandbronze.enlistment.domain.SectionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.*;
 import org.springframework.boot.test.context.*;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.annotation.DirtiesContext;
 import org.testcontainers.junit.jupiter.*;
 
+import javax.persistence.EntityManagerFactory;
 import java.time.LocalTime;
-import java.util.Map;
-import java.util.NoSuchElementException;
+import java.util.*;
+import java.util.stream.*;
 
 import static com.orangeandbronze.enlistment.domain.TestUtils.*;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.flash;
 
 @AutoConfigureMockMvc
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
@@ -27,6 +40,10 @@ class SectionsControllerIT extends AbstractControllerIT {
 
     @Autowired
     private AdminRepository adminRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     private void initTempDatabase() {
         jdbcTemplate.update("INSERT INTO admin (id, firstname, lastname) VALUES (?,?,?)",
@@ -138,4 +155,205 @@ class SectionsControllerIT extends AbstractControllerIT {
         assertEquals(0, count);
     }
 
+
+    @Test
+    void createSection_create_section_with_overlapping_schedule_in_same_room() throws Exception {
+        // Given in the DB: an admin, a room, a subject, two instructors, and a section in the room on MTH 9:00 - 10:00
+        // taught by the first instructor
+        initTempDatabase();
+        jdbcTemplate.update("INSERT INTO faculty (faculty_number, firstname, lastname) VALUES (?,?,?)",
+                DEFAULT_FACULTY_NUMBER + 1, "firstname", "lastname");
+        jdbcTemplate.update("INSERT INTO section (section_id, number_of_students, days, start_time, end_time, room_name, subject_subject_id, instructor_faculty_number) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                DEFAULT_SECTION_ID, 0, Days.MTH.ordinal(), LocalTime.of(9, 0), LocalTime.of(10, 0), DEFAULT_ROOM_NAME, DEFAULT_SUBJECT.toString(),
+                DEFAULT_FACULTY_NUMBER);
+        Admin admin = adminRepository.findById(DEFAULT_ADMIN_ID).orElseThrow(() ->
+                new NoSuchElementException("No admin w/ id " + DEFAULT_ADMIN_ID + " found in DB."));
+        // When the POST method on path "/sections" is invoked for a new section in the same room on MTH 9:30 - 10:30,
+        // taught by the second instructor
+        // Then the database should reject the new section, and the schedule conflict be shown to the admin
+        mockMvc.perform(post("/sections").
+                sessionAttr("admin", admin).
+                param("sectionId", "X12").
+                param("subjectId", DEFAULT_SUBJECT.toString()).
+                param("days", String.valueOf(Days.MTH)).
+                param("start", "09:30").
+                param("end", "10:30").
+                param("roomName", DEFAULT_ROOM_NAME).
+                param("facultyNumber", String.valueOf(DEFAULT_FACULTY_NUMBER + 1))
+        ).andExpect(flash().attribute("sectionExceptionMessage",
+                "Period overlap between this: 09:00 - 10:00 & other: 09:30 - 10:30"));
+        int count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM section WHERE section_id = ?", Integer.class, "X12");
+        assertEquals(0, count);
+    }
+
+    @Test
+    void createSection_create_section_with_overlapping_schedule_and_same_instructor_in_other_room() throws Exception {
+        // Given in the DB: an admin, two rooms, a subject, an instructor, and a section in the first room on
+        // MTH 9:00 - 10:00 taught by the instructor
+        initTempDatabase();
+        jdbcTemplate.update("INSERT INTO room (name, capacity) VALUES (?, ?)", "OtherRoom", DEFAULT_ROOM_CAPACITY);
+        jdbcTemplate.update("INSERT INTO section (section_id, number_of_students, days, start_time, end_time, room_name, subject_subject_id, instructor_faculty_number) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                DEFAULT_SECTION_ID, 0, Days.MTH.ordinal(), LocalTime.of(9, 0), LocalTime.of(10, 0), DEFAULT_ROOM_NAME, DEFAULT_SUBJECT.toString(),
+                DEFAULT_FACULTY_NUMBER);
+        Admin admin = adminRepository.findById(DEFAULT_ADMIN_ID).orElseThrow(() ->
+                new NoSuchElementException("No admin w/ id " + DEFAULT_ADMIN_ID + " found in DB."));
+        // When the POST method on path "/sections" is invoked for a new section in the second room on MTH 9:30 - 10:30,
+        // taught by the same instructor
+        // Then the database should reject the new section, and the instructor conflict be shown to the admin
+        mockMvc.perform(post("/sections").
+                sessionAttr("admin", admin).
+                param("sectionId", "X12").
+                param("subjectId", DEFAULT_SUBJECT.toString()).
+                param("days", String.valueOf(Days.MTH)).
+                param("start", "09:30").
+                param("end", "10:30").
+                param("roomName", "OtherRoom").
+                param("facultyNumber", String.valueOf(DEFAULT_FACULTY_NUMBER))
+        ).andExpect(flash().attribute("sectionExceptionMessage", "Section " + DEFAULT_SECTION_ID +
+                " & new section X12 cannot have the same instructor #" + DEFAULT_FACULTY_NUMBER +
+                " as they have overlapping schedules"));
+        int count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM section WHERE section_id = ?", Integer.class, "X12");
+        assertEquals(0, count);
+    }
+
+    @Test
+    void importSections_save_valid_lines_to_db() throws Exception {
+        // Given in the DB: an admin, a room, a subject, an instructor, and a section in the room on MTH 9:00 - 10:00,
+        // and a CSV of three new sections in the room, the first of which overlaps the section in the DB
+        initTempDatabase();
+        jdbcTemplate.update("INSERT INTO section (section_id, number_of_students, days, start_time, end_time, room_name, subject_subject_id, instructor_faculty_number) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                DEFAULT_SECTION_ID, 0, Days.MTH.ordinal(), LocalTime.of(9, 0), LocalTime.of(10, 0), DEFAULT_ROOM_NAME, DEFAULT_SUBJECT.toString(),
+                DEFAULT_FACULTY_NUMBER);
+        String csv = "sectionId,subjectId,days,start,end,roomName,facultyNumber\n" +
+                "IMP1," + DEFAULT_SUBJECT + ",MTH,09:30,10:30," + DEFAULT_ROOM_NAME + "," + DEFAULT_FACULTY_NUMBER + "\n" +
+                "IMP2," + DEFAULT_SUBJECT + ",TF,09:00,10:00," + DEFAULT_ROOM_NAME + "," + DEFAULT_FACULTY_NUMBER + "\n" +
+                "IMP3," + DEFAULT_SUBJECT + ",WS,09:00,10:00," + DEFAULT_ROOM_NAME + "," + DEFAULT_FACULTY_NUMBER + "\n";
+        Admin admin = adminRepository.findById(DEFAULT_ADMIN_ID).orElseThrow(() ->
+                new NoSuchElementException("No admin w/ id " + DEFAULT_ADMIN_ID + " found in DB."));
+        // When the POST method on path "/sections/import" is invoked w/ the CSV
+        ImportReport report = (ImportReport) mockMvc.perform(multipart("/sections/import")
+                        .file(new MockMultipartFile("file", "sections.csv", "text/csv", csv.getBytes()))
+                        .sessionAttr("admin", admin))
+                .andReturn().getFlashMap().get("sectionImportReport");
+        // Then only the sections that don't overlap should be inserted, and the overlapping one reported
+        int count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM section WHERE section_id LIKE 'IMP%'", Integer.class);
+        assertAll(
+                () -> assertEquals(2, count),
+                () -> assertEquals(2, report.getImported()),
+                () -> assertEquals(List.of("line 2: Period overlap between this: 09:00 - 10:00 & other: 09:30 - 10:30"),
+                        report.getRejected().stream().map(Object::toString).collect(Collectors.toList()))
+        );
+    }
+
+    @Test
+    void showPage_filtered_and_paged_by_section_id() throws Exception {
+        // Given in the DB: an admin, a room w/ capacity 1 & a subject, and sections PAGE0 to PAGE4 of that subject,
+        // each in its own slot on MTH, where PAGE2 is already full
+        initTempDatabase();
+        jdbcTemplate.update("UPDATE room SET capacity = 1 WHERE name = ?", DEFAULT_ROOM_NAME);
+        for (int i = 0; i < 5; i++) {
+            LocalTime start = LocalTime.of(9, 0).plusHours(i);
+            jdbcTemplate.update("INSERT INTO section (section_id, number_of_students, days, start_time, end_time, " +
+                            "room_name, subject_subject_id) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                    "PAGE" + i, i == 2 ? 1 : 0, Days.MTH.ordinal(), start, start.plusMinutes(30), DEFAULT_ROOM_NAME,
+                    DEFAULT_SUBJECT.toString());
+        }
+        Admin admin = adminRepository.findById(DEFAULT_ADMIN_ID).orElseThrow(() ->
+                new NoSuchElementException("No admin w/ id " + DEFAULT_ADMIN_ID + " found in DB."));
+        // When the GET method on path "/sections" is invoked for pages of 2 sections of the subject w/ seats left,
+        // first w/o a key then w/ the key of the page before
+        Map<String, Object> firstPage = mockMvc.perform(get("/sections").sessionAttr("admin", admin)
+                        .param("subjectId", DEFAULT_SUBJECT.toString()).param("hasSeatsLeft", "true")
+                        .param("pageSize", "2"))
+                .andReturn().getModelAndView().getModel();
+        Map<String, Object> lastPage = mockMvc.perform(get("/sections").sessionAttr("admin", admin)
+                        .param("subjectId", DEFAULT_SUBJECT.toString()).param("hasSeatsLeft", "true")
+                        .param("pageSize", "2").param("after", (String) firstPage.get("nextAfter")))
+                .andReturn().getModelAndView().getModel();
+        // Then the pages should hold the sections w/ seats left in section_id order, and the last page no next key
+        assertAll(
+                () -> assertEquals(List.of("PAGE0", "PAGE1"), sectionIds(firstPage)),
+                () -> assertEquals("PAGE1", firstPage.get("nextAfter")),
+                () -> assertEquals(List.of("PAGE3", "PAGE4"), sectionIds(lastPage)),
+                () -> assertNull(lastPage.get("nextAfter"))
+        );
+    }
+
+    @Test
+    void allocateSeats_enlists_students_from_wish_lists() throws Exception {
+        // Given in the DB: an admin, a section w/ one seat & a section of another subject w/ plenty, and two students
+        // who both wished for the one-seat section first & the other second
+        initTempDatabase();
+        jdbcTemplate.update("INSERT INTO room (name, capacity) VALUES (?, ?)", "OneSeat", 1);
+        jdbcTemplate.update("INSERT INTO subject (subject_id) VALUES (?)", "OtherSubject");
+        jdbcTemplate.update("INSERT INTO section (section_id, number_of_students, days, start_time, end_time, room_name, subject_subject_id) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                "ONESEAT", 0, Days.MTH.ordinal(), LocalTime.of(9, 0), LocalTime.of(10, 0), "OneSeat", DEFAULT_SUBJECT.toString());
+        jdbcTemplate.update("INSERT INTO section (section_id, number_of_students, days, start_time, end_time, room_name, subject_subject_id) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                "PLENTY", 0, Days.TF.ordinal(), LocalTime.of(9, 0), LocalTime.of(10, 0), DEFAULT_ROOM_NAME, "OtherSubject");
+        for (int studentNumber : List.of(101, 102)) {
+            jdbcTemplate.update("INSERT INTO student (student_number, firstname, lastname) VALUES (?, ?, ?)",
+                    studentNumber, "firstname", "lastname");
+            jdbcTemplate.update("INSERT INTO wish_list_entry (student_number, section_id, preference) VALUES (?, ?, ?), (?, ?, ?)",
+                    studentNumber, "ONESEAT", 1, studentNumber, "PLENTY", 2);
+        }
+        Admin admin = adminRepository.findById(DEFAULT_ADMIN_ID).orElseThrow(() ->
+                new NoSuchElementException("No admin w/ id " + DEFAULT_ADMIN_ID + " found in DB."));
+        // When the POST method on path "/sections/allocate" is invoked w/ a lottery seed
+        AllocationReport report = (AllocationReport) mockMvc.perform(post("/sections/allocate")
+                        .sessionAttr("admin", admin).param("seed", "42"))
+                .andReturn().getFlashMap().get("allocationReport");
+        // Then one student should get both sections & the other only the second, w/ the seats counted in the DB
+        int oneSeatTaken = jdbcTemplate.queryForObject("SELECT number_of_students FROM section WHERE section_id = ?",
+                Integer.class, "ONESEAT");
+        int plentyTaken = jdbcTemplate.queryForObject("SELECT number_of_students FROM section WHERE section_id = ?",
+                Integer.class, "PLENTY");
+        int enlisted = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM student_sections WHERE student_student_number IN (101, 102)",
+                Integer.class);
+        assertAll(
+                () -> assertEquals(2, report.getStudents()),
+                () -> assertEquals(3, report.getAllocated()),
+                () -> assertEquals(List.of("ONESEAT"), report.getRejected().stream()
+                        .map(AllocationReport.RejectedWish::getSectionId).collect(Collectors.toList())),
+                () -> assertEquals(1, oneSeatTaken),
+                () -> assertEquals(2, plentyTaken),
+                () -> assertEquals(3, enlisted)
+        );
+    }
+
+    @Test
+    void showPage_reference_data_served_from_cache() throws Exception {
+        // Given in the DB: an admin, a room, a subject & an instructor
+        initTempDatabase();
+        Admin admin = adminRepository.findById(DEFAULT_ADMIN_ID).orElseThrow(() ->
+                new NoSuchElementException("No admin w/ id " + DEFAULT_ADMIN_ID + " found in DB."));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        // When the GET method on path "/sections" is invoked twice
+        mockMvc.perform(get("/sections").sessionAttr("admin", admin));
+        Map<String, Object> model = mockMvc.perform(get("/sections").sessionAttr("admin", admin))
+                .andReturn().getModelAndView().getModel();
+        // Then the second should get the subjects, rooms & instructors from the query & second-level caches, not the
+        // DB, and the hits should be exposed as metrics
+        int referenceEntities = Stream.of("subjects", "rooms", "instructors").mapToInt(name ->
+                ((Collection<?>) model.get(name)).size()).sum();
+        assertAll(
+                () -> assertTrue(((Collection<?>) model.get("subjects")).contains(DEFAULT_SUBJECT)),
+                () -> assertEquals(3, statistics.getQueryCacheMissCount()),
+                () -> assertEquals(3, statistics.getQueryCacheHitCount()),
+                () -> assertEquals(referenceEntities, statistics.getSecondLevelCacheHitCount()),
+                () -> assertEquals(3, meterRegistry.get("hibernate.cache.query.requests").tag("result", "hit")
+                        .functionCounter().count())
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> sectionIds(Map<String, Object> model) {
+        return ((Collection<SectionSummary>) model.get("sections")).stream()
+                .map(SectionSummary::getSectionId).collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,44 @@
+package com.orangeandbronze.enlistment.domain;
+
+import java.time.*;
+import java.util.*;
+
+import static com.orangeandbronze.enlistment.domain.TestUtils.*;
+
+/** Builders for benchmark inputs of arbitrary size, on top of the fixtures in TestUtils **/
+class BenchmarkFixtures {
+
+    /** Number of distinct non-overlapping half-hour schedules in a week **/
+    static final int WEEKLY_SLOTS = Days.values().length * Period.SLOTS_PER_DAY;
+
+    /** The slot-th half-hour schedule of the week, counting from MTH 8:30am **/
+    static Schedule halfHourSchedule(int slot) {
+        Days days = Days.values()[(slot / Period.SLOTS_PER_DAY) % Days.values().length];
+        LocalTime start = Period.GRID_START.plusMinutes((long) Period.SLOT_MINUTES * (slot % Period.SLOTS_PER_DAY));
+        return new Schedule(days, new Period(start, start.plusMinutes(Period.SLOT_MINUTES)));
+    }
+
+    /** Sections with distinct subjects & instructors, filling rooms one half-hour slot at a time **/
+    static List<Section> newCatalog(int size) {
+        List<Section> catalog = new ArrayList<>(size);
+        Room room = null;
+        for (int i = 0; i < size; i++) {
+            if (i % WEEKLY_SLOTS == 0) {
+                room = new Room("R" + i, DEFAULT_ROOM_CAPACITY);
+            }
+            catalog.add(new Section("S" + i, new Subject("Subj" + i), halfHourSchedule(i), room, newFaculty(i)));
+        }
+        return catalog;
+    }
+
+    /** Subjects where each one has the previous one as its only prerequisite, the deepest last **/
+    static List<Subject> newPrereqChain(int depth) {
+        List<Subject> chain = new ArrayList<>(depth);
+        Subject previous = null;
+        for (int i = 0; i < depth; i++) {
+            previous = new Subject("Chain" + i, previous == null ? List.of() : List.of(previous));
+            chain.add(previous);
+        }
+        return chain;
+    }
+}
@@ -0,0 +1,71 @@
+package com.orangeandbronze.enlistment.domain;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static com.orangeandbronze.enlistment.domain.BenchmarkFixtures.*;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PrerequisiteBenchmark {
+
+    /** Subjects in the catalog, all of which the student has taken **/
+    @Param({"10", "100", "1000"})
+    int catalogSize;
+
+    /**
+     * Length of the prerequisite chain below the subject checked, whose only direct prerequisite is the deepest subject
+     * in the chain. Checking it only looks at direct prerequisites; looking up all of them walks the whole chain.
+     **/
+    @Param({"1", "4", "16"})
+    int prereqDepth;
+
+    private Subject subject;
+    private Collection<Subject> subjectsTaken;
+    private List<Subject> catalog;
+    private PrerequisiteGraph prerequisiteGraph;
+    private PrerequisiteGraph.SubjectSet subjectsTakenSet;
+
+    @Setup
+    public void setUp() {
+        List<Subject> chain = newPrereqChain(prereqDepth);
+        subject = new Subject("Checked", List.of(chain.get(chain.size() - 1)));
+        catalog = new ArrayList<>(chain);
+        for (int i = chain.size(); i < catalogSize; i++) {
+            catalog.add(new Subject("Subj" + i));
+        }
+        subjectsTaken = new HashSet<>(catalog);
+        catalog.add(subject);
+        prerequisiteGraph = new PrerequisiteGraph(catalog);
+        subjectsTakenSet = prerequisiteGraph.newSubjectSet(subjectsTaken);
+    }
+
+    @Benchmark
+    public Subject subject_checkPrereqs() {
+        subject.checkPrereqs(subjectsTaken);
+        return subject;
+    }
+
+    @Benchmark
+    public Subject prerequisiteGraph_checkPrereqs() {
+        prerequisiteGraph.checkPrereqs(subject, subjectsTakenSet);
+        return subject;
+    }
+
+    @Benchmark
+    public Collection<Subject> prerequisiteGraph_getAllPrerequisites() {
+        return prerequisiteGraph.getAllPrerequisites(subject);
+    }
+
+    /** Includes computing every subject's transitive prerequisites, the chain's among them **/
+    @Benchmark
+    public PrerequisiteGraph prerequisiteGraph_build() {
+        return new PrerequisiteGraph(catalog);
+    }
+}
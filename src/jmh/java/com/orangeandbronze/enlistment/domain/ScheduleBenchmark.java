@@ -0,0 +1,49 @@
+package com.orangeandbronze.enlistment.domain;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.*;
+
+import static com.orangeandbronze.enlistment.domain.BenchmarkFixtures.*;
+import static com.orangeandbronze.enlistment.domain.TestUtils.*;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScheduleBenchmark {
+
+    private final Schedule schedule = MTH830to10;
+    private final Schedule sameDaysNoOverlap = halfHourSchedule(Period.SLOTS_PER_DAY - 1);
+    private final Schedule otherDays = TF830to10;
+    private final Schedule overlapping = halfHourSchedule(0);
+
+    @Benchmark
+    public Schedule checkEnlistmentOverlap_sameDays() {
+        schedule.checkEnlistmentOverlap(sameDaysNoOverlap);
+        return schedule;
+    }
+
+    @Benchmark
+    public Schedule checkEnlistmentOverlap_otherDays() {
+        schedule.checkEnlistmentOverlap(otherDays);
+        return schedule;
+    }
+
+    @Benchmark
+    public Object checkEnlistmentOverlap_conflict() {
+        try {
+            schedule.checkEnlistmentOverlap(overlapping);
+            return schedule;
+        } catch (EnlistmentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Violation validateEnlistmentOverlap_conflict() {
+        return schedule.validateEnlistmentOverlap(overlapping);
+    }
+}
@@ -0,0 +1,81 @@
+package com.orangeandbronze.enlistment.domain;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static com.orangeandbronze.enlistment.domain.BenchmarkFixtures.*;
+import static com.orangeandbronze.enlistment.domain.TestUtils.*;
+
+/**
+ * What serving an unfiltered page of available sections from the SectionCatalog costs once its snapshot is built:
+ * finding where the page starts & skipping the student's own sections. The repository is a stub, so the one seat count
+ * query per page is left out.
+ **/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SectionCatalogBenchmark {
+
+    private static final int ENLISTED_SECTIONS = 8;
+
+    @Param({"100", "1000", "10000"})
+    int catalogSize;
+
+    private SectionCatalog catalog;
+    private Set<String> enlistedSectionIds;
+    private SectionFilter firstPage;
+    private SectionFilter middlePage;
+
+    @Setup
+    public void setUp() {
+        List<SectionSummary> sections = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            sections.add(new SectionSummary("S" + i, "Subj" + i, halfHourSchedule(i), "R" + i / WEEKLY_SLOTS,
+                    DEFAULT_ROOM_CAPACITY, 0, "First" + i + " Last" + i));
+        }
+        catalog = new SectionCatalog(stubRepository(sections), 3600);
+        // spread through the first page, so each of them is skipped
+        enlistedSectionIds = new HashSet<>();
+        for (int i = 0; i < ENLISTED_SECTIONS; i++) {
+            enlistedSectionIds.add("S" + i * 2);
+        }
+        firstPage = new SectionFilter(null, null, null, null, null, null, null, null);
+        middlePage = new SectionFilter(null, null, null, null, null, null, "S" + catalogSize / 2, null);
+        catalog.findSections(firstPage, enlistedSectionIds); // builds the snapshot
+    }
+
+    @Benchmark
+    public SectionPage findSections_firstPage() {
+        return catalog.findSections(firstPage, enlistedSectionIds);
+    }
+
+    @Benchmark
+    public SectionPage findSections_middlePage() {
+        return catalog.findSections(middlePage, enlistedSectionIds);
+    }
+
+    /** Answers only what SectionCatalog asks for: all the sections, & no seats taken in any of them **/
+    private static SectionRepository stubRepository(List<SectionSummary> sections) {
+        return (SectionRepository) Proxy.newProxyInstance(SectionRepository.class.getClassLoader(),
+                new Class<?>[]{SectionRepository.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findAllSectionSummaries":
+                            return sections;
+                        case "findSeatsTaken":
+                            Map<String, Integer> seatsTaken = new HashMap<>();
+                            for (Object sectionId : (Collection<?>) args[0]) {
+                                seatsTaken.put((String) sectionId, 0);
+                            }
+                            return seatsTaken;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
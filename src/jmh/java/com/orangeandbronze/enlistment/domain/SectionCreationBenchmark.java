@@ -0,0 +1,57 @@
+package com.orangeandbronze.enlistment.domain;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static com.orangeandbronze.enlistment.domain.BenchmarkFixtures.*;
+import static com.orangeandbronze.enlistment.domain.TestUtils.*;
+
+/** What creating a section costs: checking the new section against its room's & the whole catalog's sections **/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SectionCreationBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    int catalogSize;
+
+    private List<Section> catalog;
+    private List<Section> roomSections;
+    private Section newSection;
+    private Room room;
+
+    @Setup
+    public void setUp() {
+        catalog = newCatalog(catalogSize);
+        // the first room is full but for its last slot, which the new section takes
+        roomSections = new ArrayList<>(catalog.subList(0, Math.min(catalogSize, WEEKLY_SLOTS) - 1));
+        newSection = new Section("New", DEFAULT_SUBJECT, halfHourSchedule(WEEKLY_SLOTS - 1),
+                new Room("Other", DEFAULT_ROOM_CAPACITY), newFaculty(catalogSize));
+    }
+
+    /** addSection keeps the new section, so each call needs a room without it **/
+    @Setup(Level.Invocation)
+    public void newRoom() {
+        room = new Room("R", DEFAULT_ROOM_CAPACITY, roomSections);
+    }
+
+    @Benchmark
+    public Room room_addSection() {
+        room.addSection(newSection);
+        return room;
+    }
+
+    @Benchmark
+    public void section_checkScheduleAndInstructor(Blackhole blackhole) {
+        for (Section section : catalog) {
+            section.checkScheduleAndInstructor(newSection);
+        }
+        blackhole.consume(newSection);
+    }
+}
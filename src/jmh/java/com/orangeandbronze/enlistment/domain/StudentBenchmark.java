@@ -0,0 +1,60 @@
+package com.orangeandbronze.enlistment.domain;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static com.orangeandbronze.enlistment.domain.BenchmarkFixtures.*;
+import static com.orangeandbronze.enlistment.domain.TestUtils.*;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StudentBenchmark {
+
+    /** Sections the student is already enlisted in; at most WEEKLY_SLOTS - 1 so one free slot is left **/
+    @Param({"1", "6", "18", "53"})
+    int enlistedSections;
+
+    private Student student;
+    private Section freeSection;
+    private Section conflictingSection;
+    private PrerequisiteGraph prerequisiteGraph;
+
+    @Setup
+    public void setUp() {
+        List<Section> catalog = newCatalog(WEEKLY_SLOTS);
+        student = newStudent(DEFAULT_STUDENT_NUMBER, catalog.subList(0, enlistedSections), List.of());
+        Room room = new Room("Other", Integer.MAX_VALUE);
+        freeSection = new Section("Free", new Subject("FreeSubject"), halfHourSchedule(WEEKLY_SLOTS - 1),
+                room, DEFAULT_FACULTY);
+        conflictingSection = new Section("Conflict", new Subject("ConflictSubject"), halfHourSchedule(enlistedSections - 1),
+                new Room("Conflict", Integer.MAX_VALUE), DEFAULT_FACULTY);
+        prerequisiteGraph = new PrerequisiteGraph(List.of(freeSection.getSubject()));
+    }
+
+    @Benchmark
+    public boolean enlistAndCancel() {
+        student.enlist(freeSection);
+        return student.cancel(freeSection);
+    }
+
+    @Benchmark
+    public boolean enlistAndCancel_prerequisiteGraph() {
+        student.enlist(freeSection, prerequisiteGraph);
+        return student.cancel(freeSection);
+    }
+
+    @Benchmark
+    public Object enlist_scheduleConflict() {
+        try {
+            return student.enlist(conflictingSection);
+        } catch (EnlistmentException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.orangeandbronze.enlistment;
+
+import com.orangeandbronze.enlistment.domain.*;
+import org.springframework.beans.factory.annotation.*;
+import org.springframework.boot.*;
+import org.springframework.stereotype.*;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.function.*;
+
+/**
+ * Bulk imports from the CSV files given on the command line, as --import-sections=path/to/sections.csv and/or
+ * --import-students=path/to/students.csv. Prints progress after each batch, then every rejected line.
+ * Add --spring.main.web-application-type=none to exit once the imports are done instead of starting the web server.
+ **/
+@Component
+class ImportRunner implements ApplicationRunner {
+
+    static final String SECTIONS_OPTION = "import-sections";
+    static final String STUDENTS_OPTION = "import-students";
+
+    @Autowired
+    private SectionImporter sectionImporter;
+    @Autowired
+    private StudentImporter studentImporter;
+    @Autowired
+    private SectionCatalog sectionCatalog;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        importAll(args, SECTIONS_OPTION, "Section", sectionImporter::importSections);
+        sectionCatalog.invalidate();
+        importAll(args, STUDENTS_OPTION, "Student", studentImporter::importStudents);
+    }
+
+    private void importAll(ApplicationArguments args, String option, String what,
+                           BiFunction<Reader, Consumer<ImportReport>, ImportReport> importer) throws IOException {
+        if (!args.containsOption(option)) {
+            return;
+        }
+        for (String path : args.getOptionValues(option)) {
+            try (Reader csv = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+                ImportReport report = importer.apply(csv, progress ->
+                        System.out.println(what + " import of " + path + " in progress: " + progress));
+                System.out.println(what + " import of " + path + " done: " + report);
+                report.getRejected().forEach(rejected -> System.out.println("  " + rejected));
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.orangeandbronze.enlistment;
+
+import com.github.benmanes.caffeine.jcache.configuration.*;
+import com.github.benmanes.caffeine.jcache.spi.*;
+import com.orangeandbronze.enlistment.domain.*;
+import org.hibernate.cache.jcache.*;
+import org.hibernate.cache.spi.*;
+import org.hibernate.cfg.*;
+import org.springframework.beans.factory.annotation.*;
+import org.springframework.boot.autoconfigure.orm.jpa.*;
+import org.springframework.stereotype.*;
+
+import javax.cache.*;
+import javax.cache.spi.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * Hibernate's second-level & query cache, for the reference data that doesn't change during enlistment: Subject w/ its
+ * prerequisites, Room, Faculty & Admin, plus the findAll queries of their repositories. Backed by in-process Caffeine
+ * caches, one per region, each holding at most maxEntries entries, least recently used dropped first, & each entry
+ * expiring ttlSeconds after it was put, so rows changed in the database behind Hibernate's back show up eventually.
+ * Every region is created up front, so an entity marked @Cache without a region here fails at startup.
+ * Hit, miss & put counts are exposed as the "hibernate.second.level.cache.*" & "hibernate.cache.query.*" metrics.
+ **/
+@Component
+class ReferenceDataCache implements HibernatePropertiesCustomizer {
+
+    static final List<String> REGIONS = List.of(Subject.class.getName(), Subject.class.getName() + ".prerequisites",
+            Room.class.getName(), Faculty.class.getName(), Admin.class.getName(),
+            RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+            RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME);
+
+    private final CacheManager cacheManager;
+
+    @Autowired
+    ReferenceDataCache(@Value("${enlistment.cache.max-entries:10000}") int maxEntries,
+                       @Value("${enlistment.cache.ttl-seconds:3600}") int ttlSeconds) {
+        isTrue(maxEntries >= 1, "maxEntries must be at least 1, was: " + maxEntries);
+        isTrue(ttlSeconds >= 1, "ttlSeconds must be at least 1, was: " + ttlSeconds);
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // a cache manager of its own, as several application contexts can be open at once, e.g. in integration tests;
+        // Hibernate closes it when the EntityManagerFactory closes
+        cacheManager = provider.getCacheManager(URI.create(getClass().getName() + ":" + UUID.randomUUID()),
+                getClass().getClassLoader());
+        for (String region : REGIONS) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(maxEntries));
+            if (!region.equals(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME)) {
+                // the last update of each table, which the cached query results are checked against, must not expire
+                configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+            }
+            cacheManager.createCache(region, configuration);
+        }
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+        hibernateProperties.put(AvailableSettings.USE_QUERY_CACHE, true);
+        hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache"); // hibernate-jcache's JCacheRegionFactory
+        hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+        hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, MissingCacheStrategy.FAIL.getExternalRepresentation());
+        hibernateProperties.put(AvailableSettings.GENERATE_STATISTICS, true); // for the cache metrics
+    }
+}
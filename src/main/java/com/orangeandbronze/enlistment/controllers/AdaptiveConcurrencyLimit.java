@@ -0,0 +1,75 @@
+package com.orangeandbronze.enlistment.controllers;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * Limit on the number of requests in flight that adapts to their measured latency, after the gradient algorithm of
+ * Netflix's concurrency-limits: while short-term latency stays near its long-term average the limit grows by about
+ * sqrt(limit) per request, and once requests start queuing for threads & connections, so short-term latency rises
+ * above the average, it shrinks in proportion. Requests over the limit are turned away rather than queued.
+ **/
+class AdaptiveConcurrencyLimit {
+
+    // short-term latency may be up to this many times the long-term average before the limit shrinks
+    private static final double TOLERANCE = 1.5;
+    // weight of each new limit, so one slow request doesn't halve the limit
+    private static final double SMOOTHING = 0.2;
+    // number of latency samples averaged for the short-term & long-term latency
+    private static final int SHORT_WINDOW = 10;
+    private static final int LONG_WINDOW = 600;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private double limit;
+    private int inFlight;
+    private long samples;
+    private double shortRtt;
+    private double longRtt;
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        isTrue(minLimit >= 1, "minLimit must be at least 1, was: " + minLimit);
+        isTrue(maxLimit >= minLimit, "maxLimit must be at least minLimit " + minLimit + ", was: " + maxLimit);
+        isTrue(initialLimit >= minLimit && initialLimit <= maxLimit,
+                "initialLimit must be from " + minLimit + " to " + maxLimit + ", was: " + initialLimit);
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+
+    /** True if the request is let in, in which case release() must be called once it completes **/
+    synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /** Releases a request let in by tryAcquire, adapting the limit to how long it took **/
+    synchronized void release(long rttNanos) {
+        int inFlightBeforeRelease = inFlight--;
+        if (rttNanos <= 0) {
+            return;
+        }
+        samples++;
+        shortRtt += (rttNanos - shortRtt) / Math.min(samples, SHORT_WINDOW);
+        longRtt += (rttNanos - longRtt) / Math.min(samples, LONG_WINDOW);
+        if (longRtt > 2 * shortRtt) {
+            longRtt *= 0.95; // latency dropped well below the average, e.g. after a spike; catch up faster
+        }
+        if (inFlightBeforeRelease < limit / 2) {
+            return; // far from the limit, so latency says nothing about whether it's too high
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + newLimit * SMOOTHING));
+    }
+
+    synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    synchronized int getInFlight() {
+        return inFlight;
+    }
+}
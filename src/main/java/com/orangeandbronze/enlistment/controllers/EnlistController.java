@@ -1,50 +1,67 @@
 package com.orangeandbronze.enlistment.controllers;
 
 import com.orangeandbronze.enlistment.domain.*;
-import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.*;
-import org.springframework.orm.*;
-import org.springframework.retry.annotation.*;
+import org.springframework.http.*;
 import org.springframework.stereotype.*;
+import org.springframework.transaction.support.*;
 import org.springframework.ui.*;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.*;
 import org.springframework.web.servlet.view.*;
 
-import javax.persistence.*;
 import javax.transaction.*;
 import java.util.*;
-import java.util.function.*;
 import java.util.stream.*;
 
-import static org.apache.commons.lang3.Validate.notNull;
+import static org.apache.commons.lang3.Validate.isTrue;
 
 
 @Transactional // treats methods inside the class as a unit, methods need to be "public"
 @Controller
 @RequestMapping("enlist")
-@SessionAttributes("student")
+@SessionAttributes(EnlistController.STUDENT_NUMBER) // only the number; each request loads the student it needs
 class EnlistController {
 
+    static final String STUDENT_NUMBER = "studentNumber";
+
+    static final String BATCH_ENLISTED = "enlisted";
+    static final String BATCH_NOT_ENLISTED = "not enlisted: other selected sections were rejected";
+
     @Autowired
     private SectionRepository sectionRepo;
     @Autowired
+    private SectionCatalog sectionCatalog;
+    @Autowired
     private StudentRepository studentRepo;
-    @PersistenceContext
-    private EntityManager entityManager;
+    @Autowired
+    private PrerequisiteGraph prerequisiteGraph;
+    @Autowired
+    private SectionLockProvider sectionLocks;
+    @Autowired(required = false) // only if enlistment.engine=actors
+    private EnlistmentActors enlistmentActors;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private IdempotentSubmissions idempotentSubmissions;
+    @Autowired
+    private WishLists wishLists;
 
     @ModelAttribute
+    @Transactional(Transactional.TxType.SUPPORTS) // runs before every request; only reads when logging in
     public void initStudent(Model model, Integer studentNumber) {
-        Student student = (Student) model.getAttribute("student");
-        if (studentNumber == null && student == null) {
-            throw new LoginException("both studentNumber & student are null");
+        Integer loggedIn = (Integer) model.getAttribute(STUDENT_NUMBER);
+        if (studentNumber == null && loggedIn == null) {
+            throw new LoginException("both studentNumber & the logged in student number are null");
         }
         if (studentNumber != null && (studentNumber < 1 || studentNumber > 3)) {
             throw new LoginException("studentNumber out of range, was: " + studentNumber);
         }
         if (studentNumber != null) {
-            student = studentRepo.findById(studentNumber).orElseThrow(() -> new NoSuchElementException("No student for studentNumber " + studentNumber));
-            model.addAttribute(student);
+            if (!studentRepo.existsById(studentNumber)) {
+                throw new NoSuchElementException("No student for studentNumber " + studentNumber);
+            }
+            model.addAttribute(STUDENT_NUMBER, studentNumber);
         }
         model.addAttribute("isRetry", false);
 
@@ -57,65 +74,309 @@ class EnlistController {
 
 
     @GetMapping
-    public String showSections(Model model, @ModelAttribute Student student) {
-        var enlistedSections = student.getSections();
+    public String showSections(Model model, @ModelAttribute(STUDENT_NUMBER) int studentNumber, SectionFilter sectionFilter) {
+        model.addAttribute("student", studentRepo.findById(studentNumber).orElseThrow(() ->
+                new NoSuchElementException("No student for studentNumber " + studentNumber)));
+        // read models straight from SQL; the student's entity collections are not loaded
+        List<SectionSummary> enlistedSections = sectionRepo.findEnlistedSections(studentNumber);
         model.addAttribute("enlistedSections", enlistedSections);
-        model.addAttribute("availableSections", sectionRepo.findAll().stream()
-                .filter(sec -> !enlistedSections.contains(sec)).collect(Collectors.toList()));
+        SectionPage availablePage = findAvailableSections(sectionFilter, studentNumber, enlistedSections);
+        model.addAttribute("availableSections", availablePage.getSections());
+        model.addAttribute("eligibility", eligibility(studentNumber, enlistedSections).of(availablePage.getSections()));
+        model.addAttribute("nextAfter", availablePage.getNextAfter());
+        model.addAttribute("wishList", wishLists.find(studentNumber));
+        // new for every render, so a form submitted twice from the same page is recognized as the same submission
+        model.addAttribute("idempotencyToken", UUID.randomUUID().toString());
         return "enlist";
     }
 
-    @Retryable(ObjectOptimisticLockingFailureException.class)
+    /** Whether the student can enlist in each section of the page of available sections, by sectionId, as JSON **/
+    @GetMapping(value = "eligibility", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public Map<String, Eligibility> showEligibility(@ModelAttribute(STUDENT_NUMBER) int studentNumber,
+                                                    SectionFilter sectionFilter) {
+        List<SectionSummary> enlistedSections = sectionRepo.findEnlistedSections(studentNumber);
+        SectionPage availablePage = findAvailableSections(sectionFilter, studentNumber, enlistedSections);
+        return eligibility(studentNumber, enlistedSections).of(availablePage.getSections());
+    }
+
+    /** Unfiltered pages come from the in-memory catalog; filtered ones need the database's indexes **/
+    private SectionPage findAvailableSections(SectionFilter sectionFilter, int studentNumber,
+                                              Collection<SectionSummary> enlistedSections) {
+        if (!sectionFilter.isUnfiltered()) {
+            return sectionRepo.findAvailableSections(sectionFilter, studentNumber);
+        }
+        return sectionCatalog.findSections(sectionFilter,
+                enlistedSections.stream().map(SectionSummary::getSectionId).collect(Collectors.toSet()));
+    }
+
+    private EnlistmentEligibility eligibility(int studentNumber, Collection<SectionSummary> enlistedSections) {
+        return new EnlistmentEligibility(enlistedSections, studentRepo.findSubjectIdsTaken(studentNumber), prerequisiteGraph);
+    }
+
     @PostMapping
-    public String enlistOrCancel(@ModelAttribute Student student, @RequestParam String sectionId,
-                                 @RequestParam UserAction userAction) {
-        Section section = sectionRepo.findById(sectionId).orElseThrow(() -> new NoSuchElementException("" +
-                "no section found with sectionId " + sectionId));
+    @Transactional(Transactional.TxType.NOT_SUPPORTED) // so no connection is held while waiting on the actors
+    public String enlistOrCancel(@ModelAttribute(STUDENT_NUMBER) int studentNumber, @RequestParam String sectionId,
+                                 @RequestParam UserAction userAction,
+                                 @RequestParam(required = false) String oldSectionId, // the section SWAP leaves
+                                 @RequestParam(required = false) String idempotencyToken) {
+        // a double-click submits the same form, w/ the same token, twice; only the first runs
+        String submission = idempotencyToken == null ? null :
+                idempotencyToken + " " + userAction + " " + sectionId + " " + oldSectionId;
+        return idempotentSubmissions.submit(studentNumber, submission, () -> {
+            if (enlistmentActors != null && userAction.isSubmittable()) {
+                // the section's owner applies it, batched w/ other commands for its sections in a transaction of its own
+                userAction.submit(enlistmentActors, studentNumber, sectionId);
+            } else {
+                transactionTemplate.executeWithoutResult(status ->
+                        enlistOrCancelInTransaction(studentNumber, sectionId, oldSectionId, userAction));
+            }
+            return "redirect:enlist"; // redirect to refresh and show database changes; to confirm submission
+        });
+    }
+
+    private void enlistOrCancelInTransaction(int studentNumber, String sectionId, String oldSectionId,
+                                             UserAction userAction) {
+        Section section = findSection(sectionId);
+        Section oldSection = null;
+        if (userAction.swapsOut()) {
+            if (oldSectionId == null || oldSectionId.isBlank()) {
+                throw new EnlistmentException("Choose an enlisted section to swap out of");
+            }
+            oldSection = findSection(oldSectionId);
+        }
+        // one request per section at a time, until this transaction completes, a swap taking its two locks in one call
+        // like batches do; hot sections w/ sharded seats claim seats on separate rows instead, so their enlistments run
+        // in parallel
+        sectionLocks.lockAll(Stream.of(section, oldSection).filter(Objects::nonNull).filter(sec -> !sec.hasShardedSeats())
+                .map(Section::getSectionId).distinct().collect(Collectors.toList()));
         section.checkIfFull(); // check immediately if section is already full; multi-threading case
-        notNull(entityManager);
-        Session session = entityManager.unwrap(Session.class);
-        notNull(session);
-        session.update(student); // student needs refresh to avoid LazyInitializationException; load second-level attributes
-        userAction.act(student, section); // enlist or cancel will be done depending on what UserAction enum object's value is
+        Student student = findStudentWithSections(studentNumber);
+        // enlist, cancel or swap will be done depending on what UserAction enum object's value is
+        if (userAction.act(student, oldSection, section, prerequisiteGraph)) {
+            studentRepo.save(student);
+            userAction.updateSeats(sectionRepo, oldSection, section); // seat counts are updated atomically in the DB, no retries needed
+        }
+    }
+
+    /**
+     * Loads the student w/ their sections in one query, in the current transaction, which discards any change to it on
+     * rollback; the subjects taken are only loaded if prerequisites are checked
+     **/
+    private Student findStudentWithSections(int studentNumber) {
+        return studentRepo.findWithSectionsByStudentNumber(studentNumber).orElseThrow(() ->
+                new NoSuchElementException("No student for studentNumber " + studentNumber));
+    }
+
+    private Section findSection(String sectionId) {
+        return sectionRepo.findById(sectionId).orElseThrow(() -> new NoSuchElementException("" +
+                "no section found with sectionId " + sectionId));
+    }
+
+    /**
+     * Enlists the student in all of the selected sections or in none of them, in one transaction: the sections are
+     * checked against each other & the enlisted ones in a single pass, then all their seats are claimed. The outcome
+     * for each selected section is flashed as "batchOutcomes". Always goes through the transactional engine.
+     **/
+    @PostMapping("batch")
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public String enlistAll(@ModelAttribute(STUDENT_NUMBER) int studentNumber, @RequestParam(defaultValue = "") List<String> sectionIds,
+                            @RequestParam(required = false) String idempotencyToken,
+                            RedirectAttributes redirectAttrs) {
+        SortedSet<String> selected = new TreeSet<>(sectionIds);
+        String submission = idempotencyToken == null ? null : idempotencyToken + " batch " + selected;
+        Map<String, String> outcomes = idempotentSubmissions.submit(studentNumber, submission, () -> {
+            Map<String, String> rejections = transactionTemplate.execute(status -> {
+                Map<String, String> rejected = enlistAllInTransaction(studentNumber, selected);
+                if (!rejected.isEmpty()) {
+                    status.setRollbackOnly();
+                }
+                return rejected;
+            });
+            Map<String, String> batchOutcomes = new LinkedHashMap<>();
+            selected.forEach(sectionId -> batchOutcomes.put(sectionId, rejections.getOrDefault(sectionId,
+                    rejections.isEmpty() ? BATCH_ENLISTED : BATCH_NOT_ENLISTED)));
+            return batchOutcomes;
+        });
+        redirectAttrs.addFlashAttribute("batchOutcomes", outcomes);
+        return "redirect:/enlist";
+    }
+
+    /** Returns why each rejected section was rejected, empty if the student is now enlisted in all of them **/
+    private Map<String, String> enlistAllInTransaction(int studentNumber, SortedSet<String> sectionIds) {
+        Map<String, String> rejections = new HashMap<>();
+        SortedMap<String, Section> sections = new TreeMap<>();
+        sectionRepo.findAllById(sectionIds).forEach(section -> sections.put(section.getSectionId(), section));
+        sectionIds.stream().filter(sectionId -> !sections.containsKey(sectionId))
+                .forEach(sectionId -> rejections.put(sectionId, "no section found with sectionId " + sectionId));
+        if (!rejections.isEmpty()) {
+            return rejections;
+        }
+        // all in one call, which takes them in the provider's lock order, so two batches sharing sections (or just their
+        // locks) never each hold a lock the other is waiting for
+        sectionLocks.lockAll(sections.values().stream().filter(section -> !section.hasShardedSeats())
+                .map(Section::getSectionId).collect(Collectors.toList()));
+        Student student = findStudentWithSections(studentNumber);
+        List<Section> newSections = sections.values().stream()
+                .filter(section -> !student.getSections().contains(section)).collect(Collectors.toList());
+        student.enlistAll(newSections, prerequisiteGraph)
+                .forEach((section, e) -> rejections.put(section.getSectionId(), e.getMessage()));
+        if (!rejections.isEmpty()) {
+            return rejections;
+        }
         studentRepo.save(student);
-        sectionRepo.save(section);
-        return "redirect:enlist"; // redirect to refresh and show database changes; to confirm submission
+        for (Section section : newSections) {
+            try {
+                section.checkSeatClaimed(sectionRepo.claimSeat(section.getSectionId()));
+            } catch (EnlistmentException e) {
+                rejections.put(section.getSectionId(), e.getMessage()); // the transaction rolls back
+                break;
+            }
+        }
+        return rejections;
     }
 
 
+    /**
+     * Replaces the student's wish list for pre-enlistment w/ the sections, most wanted first; no seats are taken until
+     * the SeatAllocator runs.
+     **/
+    @PostMapping("wishlist")
+    public String submitWishList(@ModelAttribute(STUDENT_NUMBER) int studentNumber,
+                                 @RequestParam(defaultValue = "") List<String> sectionIds, RedirectAttributes redirectAttrs) {
+        wishLists.submit(studentNumber, sectionIds);
+        redirectAttrs.addFlashAttribute("wishListMessage", "Wish list saved");
+        return "redirect:/enlist";
+    }
+
     @ExceptionHandler(EnlistmentException.class)
     public String handleException(RedirectAttributes redirectAttrs, EnlistmentException e) {
         redirectAttrs.addFlashAttribute("enlistmentExceptionMessage", e.getMessage());
         return "redirect:enlist";
     }
 
+    /** A SectionFilter w/ times off the schedule grid, reversed times or a bad page size **/
+    @ExceptionHandler(IllegalArgumentException.class)
+    public String handleException(RedirectAttributes redirectAttrs, IllegalArgumentException e) {
+        redirectAttrs.addFlashAttribute("enlistmentExceptionMessage", e.getMessage());
+        return "redirect:enlist";
+    }
 
     void setSectionRepo(SectionRepository sectionRepo) {
         this.sectionRepo = sectionRepo;
     }
 
+    void setSectionCatalog(SectionCatalog sectionCatalog) {
+        this.sectionCatalog = sectionCatalog;
+    }
+
     void setStudentRepo(StudentRepository studentRepo) {
         this.studentRepo = studentRepo;
     }
 
-    void setEntityManager(EntityManager entityManager) {
-        this.entityManager = entityManager;
+    void setPrerequisiteGraph(PrerequisiteGraph prerequisiteGraph) {
+        this.prerequisiteGraph = prerequisiteGraph;
+    }
+
+    void setSectionLocks(SectionLockProvider sectionLocks) {
+        this.sectionLocks = sectionLocks;
+    }
+
+    void setEnlistmentActors(EnlistmentActors enlistmentActors) {
+        this.enlistmentActors = enlistmentActors;
+    }
+
+    void setTransactionTemplate(TransactionTemplate transactionTemplate) {
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    void setIdempotentSubmissions(IdempotentSubmissions idempotentSubmissions) {
+        this.idempotentSubmissions = idempotentSubmissions;
+    }
+
+    void setWishLists(WishLists wishLists) {
+        this.wishLists = wishLists;
     }
 
 }
 
 enum UserAction {
-    ENLIST(Student::enlist),
-    CANCEL(Student::cancel);
+    ENLIST((student, oldSection, section, prerequisiteGraph) -> student.enlist(section, prerequisiteGraph),
+            (sectionRepo, oldSection, section) -> claimSeat(sectionRepo, section), EnlistmentActors::enlist),
+    CANCEL((student, oldSection, section, prerequisiteGraph) -> student.cancel(section),
+            (sectionRepo, oldSection, section) -> sectionRepo.releaseSeat(section.getSectionId()), EnlistmentActors::cancel),
+    // leaves oldSection for section in one transaction; not submitted to the actors, as it spans two sections' owners
+    SWAP((student, oldSection, section, prerequisiteGraph) -> student.swap(oldSection, section, prerequisiteGraph),
+            UserAction::swapSeats, null);
 
-    private final BiConsumer<Student, Section> action;
+    private final Action action;
+    private final SeatUpdate seatUpdate;
+    private final Command command;
 
-    UserAction(BiConsumer<Student, Section> action) {
+    UserAction(Action action, SeatUpdate seatUpdate, Command command) {
         this.action = action;
+        this.seatUpdate = seatUpdate;
+        this.command = command;
+    }
+
+    /** Returns true if the student's sections changed; oldSection is only used by SWAP, null otherwise **/
+    boolean act(Student student, Section oldSection, Section section, PrerequisiteGraph prerequisiteGraph) {
+        return action.act(student, oldSection, section, prerequisiteGraph);
+    }
+
+    void updateSeats(SectionRepository sectionRepo, Section oldSection, Section section) {
+        seatUpdate.update(sectionRepo, oldSection, section);
+    }
+
+    /** True if this action leaves an enlisted section, named by the request's oldSectionId **/
+    boolean swapsOut() {
+        return this == SWAP;
+    }
+
+    /** True if the actors engine can apply this action **/
+    boolean isSubmittable() {
+        return command != null;
+    }
+
+    /** Has the section's actor apply this action, waiting for it; returns true if the student's sections changed **/
+    boolean submit(EnlistmentActors enlistmentActors, int studentNumber, String sectionId) {
+        isTrue(isSubmittable(), "the actors engine can't apply " + this);
+        return command.submit(enlistmentActors, studentNumber, sectionId);
+    }
+
+    private static void claimSeat(SectionRepository sectionRepo, Section section) {
+        section.checkSeatClaimed(sectionRepo.claimSeat(section.getSectionId()));
+    }
+
+    /**
+     * Claims the new seat & releases the old one. The section locks are taken in lock stripe order by lockAll, not in
+     * this order, but that can't deadlock: the sections whose rows these update are already locked by this transaction,
+     * so no other swap is updating them. Only sections w/ sharded seats aren't locked; for those, updating the two rows in
+     * sectionId order keeps two swaps between the same sections from each waiting on a row the other updated.
+     **/
+    private static void swapSeats(SectionRepository sectionRepo, Section oldSection, Section section) {
+        if (oldSection.getSectionId().compareTo(section.getSectionId()) < 0) {
+            sectionRepo.releaseSeat(oldSection.getSectionId());
+            claimSeat(sectionRepo, section);
+        } else {
+            claimSeat(sectionRepo, section);
+            sectionRepo.releaseSeat(oldSection.getSectionId());
+        }
+    }
+
+    @FunctionalInterface
+    private interface Action {
+        boolean act(Student student, Section oldSection, Section section, PrerequisiteGraph prerequisiteGraph);
+    }
+
+    @FunctionalInterface
+    private interface SeatUpdate {
+        void update(SectionRepository sectionRepo, Section oldSection, Section section);
     }
 
-    void act(Student student, Section section) {
-        action.accept(student, section);
+    @FunctionalInterface
+    private interface Command {
+        boolean submit(EnlistmentActors enlistmentActors, int studentNumber, String sectionId);
     }
 
 }
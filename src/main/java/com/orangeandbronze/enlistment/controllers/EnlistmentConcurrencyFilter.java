@@ -0,0 +1,78 @@
+package com.orangeandbronze.enlistment.controllers;
+
+import io.micrometer.core.instrument.*;
+import org.springframework.beans.factory.annotation.*;
+import org.springframework.boot.autoconfigure.condition.*;
+import org.springframework.stereotype.*;
+import org.springframework.web.filter.*;
+
+import javax.servlet.*;
+import javax.servlet.http.*;
+import java.io.*;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * Sheds load on "/enlist" & the paths under it w/ an AdaptiveConcurrencyLimit shared by all of them: requests over the
+ * limit get a 503 w/ Retry-After right away, before a session, thread or connection is spent on them, instead of
+ * queuing until everyone times out. The limit, the requests in flight & the rejections are exposed as the
+ * "enlistment.concurrency.limit" & "enlistment.concurrency.in-flight" gauges and the "enlistment.concurrency.rejected"
+ * counter, tagged w/ the HTTP method.
+ **/
+@Component
+@ConditionalOnProperty(name = "enlistment.concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+class EnlistmentConcurrencyFilter extends OncePerRequestFilter {
+
+    static final String PATH = "/enlist";
+
+    private final AdaptiveConcurrencyLimit limit;
+    private final MeterRegistry meterRegistry;
+    private final String retryAfterSeconds;
+
+    @Autowired
+    EnlistmentConcurrencyFilter(MeterRegistry meterRegistry,
+                                @Value("${enlistment.concurrency-limit.initial:${spring.datasource.hikari.maximum-pool-size:10}}")
+                                        int initialLimit,
+                                @Value("${enlistment.concurrency-limit.min:2}") int minLimit,
+                                @Value("${enlistment.concurrency-limit.max:200}") int maxLimit,
+                                @Value("${enlistment.concurrency-limit.retry-after-seconds:1}") int retryAfterSeconds) {
+        notNull(meterRegistry);
+        isTrue(retryAfterSeconds >= 0, "retryAfterSeconds must be non-negative, was: " + retryAfterSeconds);
+        this.limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit);
+        this.meterRegistry = meterRegistry;
+        this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+        Gauge.builder("enlistment.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Number of enlistment requests let in at a time").register(meterRegistry);
+        Gauge.builder("enlistment.concurrency.in-flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Number of enlistment requests in flight").register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !path.equals(PATH) && !path.startsWith(PATH + "/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!limit.tryAcquire()) {
+            meterRegistry.counter("enlistment.concurrency.rejected", "method", request.getMethod()).increment();
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", retryAfterSeconds);
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write("Enlistment is busy, please try again in " + retryAfterSeconds + "s.");
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            limit.release(System.nanoTime() - start);
+        }
+    }
+
+    AdaptiveConcurrencyLimit getLimit() {
+        return limit;
+    }
+}
@@ -0,0 +1,119 @@
+package com.orangeandbronze.enlistment.controllers;
+
+import com.orangeandbronze.enlistment.domain.*;
+import org.springframework.beans.factory.annotation.*;
+import org.springframework.stereotype.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * Outcomes of recent form submissions by (studentNumber, token), so a double-clicked form runs once: a duplicate of a
+ * completed submission gets its result, or its EnlistmentException, w/o running again, and a duplicate that arrives
+ * while the first is still running waits for it & shares its outcome. Kept in memory for ttlSeconds, at most maxEntries
+ * of them, oldest dropped first. Other exceptions aren't kept, so a submission that failed unexpectedly can be retried.
+ **/
+@Component
+class IdempotentSubmissions {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final Map<String, Submission> submissions = new LinkedHashMap<>(); // oldest first
+
+    @Autowired
+    IdempotentSubmissions(@Value("${enlistment.idempotency.max-entries:10000}") int maxEntries,
+                          @Value("${enlistment.idempotency.ttl-seconds:300}") int ttlSeconds) {
+        this(maxEntries, ttlSeconds, System::nanoTime);
+    }
+
+    IdempotentSubmissions(int maxEntries, int ttlSeconds, LongSupplier nanoClock) {
+        isTrue(maxEntries >= 1, "maxEntries must be at least 1, was: " + maxEntries);
+        isTrue(ttlSeconds >= 1, "ttlSeconds must be at least 1, was: " + ttlSeconds);
+        notNull(nanoClock);
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.nanoClock = nanoClock;
+    }
+
+    /** Runs the action, unless the student already submitted the token, returning its result; no token, no check **/
+    @SuppressWarnings("unchecked")
+    <T> T submit(int studentNumber, String token, Supplier<T> action) {
+        notNull(action);
+        if (token == null || token.isBlank()) {
+            return action.get();
+        }
+        String key = studentNumber + ":" + token;
+        Submission submission;
+        boolean duplicate;
+        synchronized (this) {
+            long now = nanoClock.getAsLong();
+            dropExpired(now);
+            submission = submissions.get(key);
+            duplicate = submission != null;
+            if (!duplicate) {
+                submission = new Submission(now);
+                submissions.put(key, submission);
+                if (submissions.size() > maxEntries) {
+                    Iterator<Submission> oldest = submissions.values().iterator();
+                    oldest.next();
+                    oldest.remove();
+                }
+            }
+        }
+        if (duplicate) {
+            return (T) await(submission.outcome);
+        }
+        try {
+            T result = action.get();
+            submission.outcome.complete(result);
+            return result;
+        } catch (EnlistmentException e) {
+            submission.outcome.completeExceptionally(e);
+            throw e;
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                submissions.remove(key, submission);
+            }
+            submission.outcome.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void dropExpired(long now) {
+        Iterator<Submission> oldest = submissions.values().iterator();
+        while (oldest.hasNext() && now - oldest.next().submittedAt >= ttlNanos) {
+            oldest.remove();
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> outcome) {
+        try {
+            return outcome.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    synchronized int size() {
+        return submissions.size();
+    }
+
+    private static class Submission {
+        private final long submittedAt;
+        private final CompletableFuture<Object> outcome = new CompletableFuture<>();
+
+        private Submission(long submittedAt) {
+            this.submittedAt = submittedAt;
+        }
+    }
+}
@@ -3,11 +3,16 @@ package com.orangeandbronze.enlistment.controllers;
 import com.orangeandbronze.enlistment.domain.*;
 import com.orangeandbronze.enlistment.domain.Period;
 import org.springframework.beans.factory.annotation.*;
+import org.springframework.dao.*;
 import org.springframework.stereotype.*;
 import org.springframework.ui.*;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.*;
 import org.springframework.web.servlet.mvc.support.*;
 
+import javax.transaction.*;
+import java.io.*;
+import java.nio.charset.*;
 import java.time.*;
 import java.util.*;
 
@@ -28,7 +33,13 @@ class SectionsController {
     @Autowired
     private SectionRepository sectionRepo;
     @Autowired
+    private SectionCatalog sectionCatalog;
+    @Autowired
     private FacultyRepository facultyRepository;
+    @Autowired
+    private SectionImporter sectionImporter;
+    @Autowired
+    private SeatAllocator seatAllocator;
 
     @ModelAttribute("admin")
     public Admin admin(Integer id) {
@@ -36,13 +47,17 @@ class SectionsController {
     }
 
     @GetMapping
-    public String showPage(Model model, Integer id) {
+    @Transactional // the page's queries share one connection, released before the view renders
+    public String showPage(Model model, Integer id, SectionFilter sectionFilter) {
         Admin admin = id == null ? (Admin) model.getAttribute("admin") :
                 adminRepo.findById(id).orElseThrow(() -> new NoSuchElementException("no admin found for adminId " + id));
         model.addAttribute("admin", admin);
         model.addAttribute("subjects", subjectRepo.findAll());
         model.addAttribute("rooms", roomRepo.findAll());
-        model.addAttribute("sections", sectionRepo.findAll());
+        SectionPage page = sectionFilter.isUnfiltered() ? sectionCatalog.findSections(sectionFilter, Set.of()) :
+                sectionRepo.findSections(sectionFilter);
+        model.addAttribute("sections", page.getSections());
+        model.addAttribute("nextAfter", page.getNextAfter());
         model.addAttribute("instructors", facultyRepository.findAll());
         return "sections";
     }
@@ -55,7 +70,7 @@ class SectionsController {
         notBlank(roomName, "Please choose a room for the new section!");
         notBlank(facultyNumber, "Please choose an instructor for the new section!");
         if (sectionRepo.findById(sectionId).isPresent()) {
-            throw new EnlistmentException("A section with section id " + sectionId + " already exists.");
+            throw SectionRepository.sectionIdTaken(sectionId);
         }
 
         var instructor = facultyRepository.findById(Integer.parseInt(facultyNumber)).orElseThrow(() ->
@@ -65,19 +80,43 @@ class SectionsController {
         Subject subject = subjectRepo.findById(subjectId).orElseThrow(() -> new NoSuchElementException("No subject found with subjectId " + subjectId));
         Room room = roomRepo.findById(roomName).orElseThrow(() -> new NoSuchElementException("No room found with roomName " + roomName));
         Section section = new Section(sectionId, subject, schedule, room, instructor);
-        List<Section> sections = sectionRepo.findAll();
-        sections.forEach(currSection -> currSection.checkScheduleAndInstructor(section));
-        sectionRepo.save(section);
+        sectionRepo.create(section); // overlaps in the same room or w/ the same instructor are rejected by the DB
+        sectionCatalog.invalidate();
         redirectAttrs.addFlashAttribute("sectionSuccessMessage", "New section successfully created!");
         return "redirect:sections";
     }
 
+    @PostMapping("import")
+    public String importSections(@RequestParam MultipartFile file, RedirectAttributes redirectAttrs) throws IOException {
+        try (Reader csv = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+            redirectAttrs.addFlashAttribute("sectionImportReport", sectionImporter.importSections(csv));
+        }
+        sectionCatalog.invalidate();
+        return "redirect:/sections";
+    }
+
+    @PostMapping("allocate")
+    public String allocateSeats(@RequestParam(required = false) Long seed, RedirectAttributes redirectAttrs) {
+        long lotterySeed = seed == null ? new Random().nextLong() : seed;
+        redirectAttrs.addFlashAttribute("allocationReport", seatAllocator.allocateSeats(lotterySeed));
+        redirectAttrs.addFlashAttribute("allocationSeed", lotterySeed);
+        return "redirect:/sections";
+    }
+
     @ExceptionHandler(EnlistmentException.class)
     public String handleException(RedirectAttributes redirectAttrs, EnlistmentException e) {
         redirectAttrs.addFlashAttribute("sectionExceptionMessage", e.getMessage());
         return "redirect:sections";
     }
 
+    /** Rejections by the database that SectionRepository.create doesn't turn into an EnlistmentException **/
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public String handleException(RedirectAttributes redirectAttrs, DataIntegrityViolationException e) {
+        redirectAttrs.addFlashAttribute("sectionExceptionMessage", "The section was rejected by the database: " +
+                e.getMostSpecificCause().getMessage());
+        return "redirect:sections";
+    }
+
     @ExceptionHandler(NullPointerException.class)
     public String handleException(RedirectAttributes redirectAttrs, NullPointerException e) {
         redirectAttrs.addFlashAttribute("sectionExceptionMessage", e.getMessage());
@@ -98,6 +137,10 @@ class SectionsController {
         this.sectionRepo = sectionRepo;
     }
 
+    void setSectionCatalog(SectionCatalog sectionCatalog) {
+        this.sectionCatalog = sectionCatalog;
+    }
+
     void setRoomRepo(RoomRepository roomRepo) {
         this.roomRepo = roomRepo;
     }
@@ -110,4 +153,12 @@ class SectionsController {
         this.facultyRepository = facultyRepo;
     }
 
+    void setSectionImporter(SectionImporter sectionImporter) {
+        this.sectionImporter = sectionImporter;
+    }
+
+    void setSeatAllocator(SeatAllocator seatAllocator) {
+        this.seatAllocator = seatAllocator;
+    }
+
 }
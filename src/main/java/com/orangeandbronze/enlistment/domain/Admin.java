@@ -1,10 +1,15 @@
 package com.orangeandbronze.enlistment.domain;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 
 import static org.apache.commons.lang3.Validate.*;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
 public class Admin {
 
     @Id
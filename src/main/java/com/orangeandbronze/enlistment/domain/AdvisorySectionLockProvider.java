@@ -0,0 +1,55 @@
+package com.orangeandbronze.enlistment.domain;
+
+import io.micrometer.core.instrument.*;
+import org.springframework.beans.factory.annotation.*;
+import org.springframework.boot.autoconfigure.condition.*;
+import org.springframework.jdbc.core.*;
+import org.springframework.stereotype.*;
+
+import java.util.*;
+import java.util.concurrent.locks.*;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * Cluster-wide section locks: a Postgres transaction-level advisory lock keyed by the hash of the sectionId, taken on
+ * the transaction's own connection, so every app instance on the same database is excluded & Postgres releases the
+ * lock itself at commit or rollback. The key is (SECTION_LOCK_CLASS, hash) so it can't collide w/ other advisory locks.
+ * Requests on this instance first queue on the section's SectionLockStripes lock, so at most one of them per section
+ * waits on the database at a time. Several sections are locked stripes first, in stripe order, then advisory locks in
+ * key order, so transactions on any instance take them in the same order.
+ **/
+@Component
+@ConditionalOnProperty(name = "enlistment.section-lock", havingValue = "advisory")
+class AdvisorySectionLockProvider extends TimedSectionLockProvider {
+
+    static final int SECTION_LOCK_CLASS = 0x5EC7;
+
+    private final SectionLockStripes stripes;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    AdvisorySectionLockProvider(MeterRegistry meterRegistry, HotSections hotSections, SectionLockStripes stripes,
+                                JdbcTemplate jdbcTemplate) {
+        super(meterRegistry, hotSections, "advisory");
+        notNull(stripes);
+        notNull(jdbcTemplate);
+        this.stripes = stripes;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    Runnable acquireAll(Collection<String> sectionIds) {
+        List<ReentrantLock> locals = stripes.getAll(sectionIds);
+        locals.forEach(ReentrantLock::lock);
+        try {
+            sectionIds.stream().mapToInt(String::hashCode).distinct().sorted().forEach(key ->
+                    jdbcTemplate.query("SELECT pg_advisory_xact_lock(?, ?)", (RowCallbackHandler) rs -> {},
+                            SECTION_LOCK_CLASS, key));
+        } catch (RuntimeException e) {
+            locals.forEach(ReentrantLock::unlock);
+            throw e;
+        }
+        return () -> locals.forEach(ReentrantLock::unlock); // the advisory locks are released by Postgres w/ the transaction
+    }
+}
@@ -0,0 +1,67 @@
+package com.orangeandbronze.enlistment.domain;
+
+import java.util.*;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/** Outcome of a SeatAllocator run: how many students' wishes were considered, the seats allocated, & the wishes not **/
+public class AllocationReport {
+    private final int students;
+    private final int allocated;
+    private final List<RejectedWish> rejected;
+
+    AllocationReport(int students, int allocated, List<RejectedWish> rejected) {
+        isTrue(students >= 0, "students must be non-negative, was: " + students);
+        isTrue(allocated >= 0, "allocated must be non-negative, was: " + allocated);
+        notNull(rejected);
+        this.students = students;
+        this.allocated = allocated;
+        this.rejected = List.copyOf(rejected);
+    }
+
+    public int getStudents() {
+        return students;
+    }
+
+    public int getAllocated() {
+        return allocated;
+    }
+
+    public List<RejectedWish> getRejected() {
+        return rejected;
+    }
+
+    @Override
+    public String toString() {
+        return "allocated " + allocated + " seats to " + students + " students, rejected " + rejected.size() + " wishes";
+    }
+
+    public static class RejectedWish {
+        private final int studentNumber;
+        private final String sectionId;
+        private final String reason;
+
+        RejectedWish(int studentNumber, String sectionId, String reason) {
+            this.studentNumber = studentNumber;
+            this.sectionId = sectionId;
+            this.reason = reason;
+        }
+
+        public int getStudentNumber() {
+            return studentNumber;
+        }
+
+        public String getSectionId() {
+            return sectionId;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "student " + studentNumber + ", section " + sectionId + ": " + reason;
+        }
+    }
+}
@@ -4,4 +4,8 @@ class CapacityException extends EnlistmentException {
     CapacityException(String msg) {
         super(msg);
     }
+
+    CapacityException(Violation violation) {
+        super(violation);
+    }
 }
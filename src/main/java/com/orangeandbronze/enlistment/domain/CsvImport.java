@@ -0,0 +1,127 @@
+package com.orangeandbronze.enlistment.domain;
+
+import java.io.*;
+import java.time.*;
+import java.time.format.*;
+import java.util.*;
+import java.util.function.*;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * One run of a bulk import from CSV. Lines are streamed & checked one at a time by add(), which holds the accepted
+ * ones until BATCH_SIZE of them are pending; then flush() writes them, so memory stays bounded by the batch size
+ * plus whatever lookups the import keeps. A line is rejected, w/ the reason in the ImportReport, when add() throws an
+ * EnlistmentException or IllegalArgumentException. A blank line, or a first line starting w/ the header's first
+ * column name, is skipped.
+ **/
+abstract class CsvImport {
+
+    static final int BATCH_SIZE = 1000;
+
+    final ImportReport report = new ImportReport();
+    private final String header;
+    private final int columns;
+
+    CsvImport(String header) {
+        notBlank(header);
+        this.header = header;
+        this.columns = header.split(",").length;
+    }
+
+    /** Accepts the trimmed fields of a line, or throws why they are rejected **/
+    abstract void add(String[] fields);
+
+    /** Number of accepted records not yet written **/
+    abstract int pending();
+
+    /** Writes the pending records, returning how many were written **/
+    abstract int flush();
+
+    /** Imports every line, calling progress w/ the report so far after each batch is written **/
+    ImportReport importLines(Reader csv, Consumer<ImportReport> progress) {
+        notNull(csv);
+        notNull(progress);
+        String firstColumn = header.substring(0, header.indexOf(','));
+        try {
+            BufferedReader lines = csv instanceof BufferedReader ? (BufferedReader) csv : new BufferedReader(csv);
+            int lineNumber = 0;
+            for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+                lineNumber++;
+                if (line.isBlank() || lineNumber == 1 && line.regionMatches(true, 0, firstColumn, 0, firstColumn.length())) {
+                    continue;
+                }
+                report.lineRead();
+                try {
+                    add(split(line));
+                } catch (EnlistmentException | IllegalArgumentException e) {
+                    report.reject(lineNumber, line, e.getMessage());
+                }
+                if (pending() >= BATCH_SIZE) {
+                    flushBatch(progress);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        flushBatch(progress);
+        return report;
+    }
+
+    private void flushBatch(Consumer<ImportReport> progress) {
+        if (pending() > 0) {
+            report.imported(flush());
+        }
+        progress.accept(report);
+    }
+
+    private String[] split(String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length != columns) {
+            throw new EnlistmentException("expected " + columns + " columns " + header + ", found " + fields.length);
+        }
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = fields[i].trim();
+        }
+        return fields;
+    }
+
+    static <K, V> Map<K, V> byId(Collection<V> values, Function<V, K> id) {
+        Map<K, V> map = new HashMap<>();
+        values.forEach(value -> map.put(id.apply(value), value));
+        return map;
+    }
+
+    static <K, V> V lookup(Map<K, V> map, K key, String notFoundMessage) {
+        V value = map.get(key);
+        if (value == null) {
+            throw new EnlistmentException(notFoundMessage);
+        }
+        return value;
+    }
+
+    /** The number, or null if it isn't one **/
+    static Integer parseInt(String value) {
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    static Days parseDays(String value) {
+        try {
+            return Days.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            throw new EnlistmentException("days must be one of " + Arrays.toString(Days.values()) + ", was: " + value);
+        }
+    }
+
+    static LocalTime parseTime(String value) {
+        try {
+            return LocalTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new EnlistmentException("time must be in HH:mm format, was: " + value);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.orangeandbronze.enlistment.domain;
+
+/** Whether a student can enlist in a section, else the first rule that blocks it, in the order Student.enlist checks them **/
+public enum Eligibility {
+    ENLISTABLE("Enlistable"),
+    SCHEDULE_CONFLICT("Schedule conflict"),
+    SAME_SUBJECT("Same subject as an enlisted section"),
+    MISSING_PREREQUISITES("Missing prerequisites"),
+    FULL("Full");
+
+    private final String label;
+
+    Eligibility(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
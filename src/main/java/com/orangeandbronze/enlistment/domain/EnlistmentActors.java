@@ -0,0 +1,233 @@
+package com.orangeandbronze.enlistment.domain;
+
+import org.springframework.beans.factory.annotation.*;
+import org.springframework.boot.autoconfigure.condition.*;
+import org.springframework.stereotype.*;
+import org.springframework.transaction.*;
+import org.springframework.transaction.support.*;
+
+import javax.annotation.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * Enlistment engine for opening-day traffic, used when "enlistment.engine" is "actors". Every section is owned by one
+ * of a fixed pool of worker threads, picked by the hash of its sectionId, and ENLIST & CANCEL commands are queued in
+ * the owner's mailbox. The owner is the only thread that applies commands to its sections, so it needs no section lock.
+ * Each time it drains its mailbox, up to MAX_BATCH commands are applied in one transaction: the students' sections are
+ * changed, seats are claimed & released through SectionSeats, and all of it is committed at once. A command rejected
+ * by the domain rules fails alone; if the commit itself fails, the batch's commands are retried one per transaction.
+ * The callers wait for their command's result once its batch has committed, for at most timeoutSeconds, so a stuck
+ * worker can't hold their threads forever. A worker that stops completes the commands left in its mailbox exceptionally.
+ * <p>
+ * Commands for a section are only ordered within this app instance, so this engine is meant for a single instance.
+ **/
+@Component
+@ConditionalOnProperty(name = "enlistment.engine", havingValue = "actors")
+public class EnlistmentActors {
+
+    static final int MAX_BATCH = 256;
+    private static final int STOP_CHECK_SECONDS = 1; // how long an idle worker waits before checking it's stopped
+
+    private final StudentRepository studentRepo;
+    private final SectionRepository sectionRepo;
+    private final PrerequisiteGraph prerequisiteGraph;
+    private final TransactionTemplate transactionTemplate;
+    private final long timeoutSeconds;
+    private final Worker[] workers;
+    private volatile boolean stopped;
+
+    @Autowired
+    EnlistmentActors(StudentRepository studentRepo, SectionRepository sectionRepo, PrerequisiteGraph prerequisiteGraph,
+                     PlatformTransactionManager transactionManager,
+                     @Value("${enlistment.actors.workers:4}") int workers,
+                     @Value("${enlistment.actors.timeout-seconds:30}") int timeoutSeconds) {
+        notNull(studentRepo);
+        notNull(sectionRepo);
+        notNull(prerequisiteGraph);
+        notNull(transactionManager);
+        isTrue(workers > 0, "enlistment.actors.workers must be positive, was: " + workers);
+        isTrue(timeoutSeconds > 0, "enlistment.actors.timeout-seconds must be positive, was: " + timeoutSeconds);
+        this.studentRepo = studentRepo;
+        this.sectionRepo = sectionRepo;
+        this.prerequisiteGraph = prerequisiteGraph;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.timeoutSeconds = timeoutSeconds;
+        this.workers = new Worker[workers];
+        for (int i = 0; i < workers; i++) {
+            this.workers[i] = new Worker("enlistment-actor-" + i);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        for (Worker worker : workers) {
+            worker.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        stopped = true;
+        for (Worker worker : workers) {
+            worker.interrupt();
+        }
+        for (Worker worker : workers) {
+            worker.join();
+            worker.failPending(); // those added after the worker emptied its mailbox
+        }
+    }
+
+    /** Waits until the section's owner has enlisted the student; returns false if the student was already enlisted **/
+    public boolean enlist(int studentNumber, String sectionId) {
+        return submit(new Command(true, studentNumber, sectionId));
+    }
+
+    /** Waits until the section's owner has cancelled the enlistment; returns false if there was nothing to cancel **/
+    public boolean cancel(int studentNumber, String sectionId) {
+        return submit(new Command(false, studentNumber, sectionId));
+    }
+
+    private boolean submit(Command command) {
+        int hash = command.sectionId.hashCode();
+        Worker worker = workers[Math.floorMod(hash ^ (hash >>> 16), workers.length)];
+        worker.mailbox.add(command);
+        try {
+            return command.result.get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("no result after " + timeoutSeconds + "s for " + command + (worker.mailbox
+                    .remove(command) ? "; withdrawn, not applied" : "; it may still be applied"), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted waiting for " + command, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /** Applies the commands in one transaction, then completes each one w/ its result or its rejection **/
+    private void apply(List<Command> batch) {
+        Map<Command, Object> outcomes = new LinkedHashMap<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                outcomes.clear();
+                for (Command command : batch) {
+                    try {
+                        outcomes.put(command, apply(command));
+                    } catch (EnlistmentException | NoSuchElementException e) {
+                        outcomes.put(command, e);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result.completeExceptionally(e);
+            } else {
+                batch.forEach(command -> apply(List.of(command)));
+            }
+            return;
+        }
+        outcomes.forEach((command, outcome) -> {
+            if (outcome instanceof RuntimeException) {
+                command.result.completeExceptionally((RuntimeException) outcome);
+            } else {
+                command.result.complete((Boolean) outcome);
+            }
+        });
+    }
+
+    private boolean apply(Command command) {
+        Student student = studentRepo.findById(command.studentNumber).orElseThrow(() ->
+                new NoSuchElementException("no student found with studentNumber " + command.studentNumber));
+        Section section = sectionRepo.findById(command.sectionId).orElseThrow(() ->
+                new NoSuchElementException("no section found with sectionId " + command.sectionId));
+        if (!command.enlist) {
+            if (student.cancel(section)) {
+                sectionRepo.releaseSeat(command.sectionId);
+                return true;
+            }
+            return false;
+        }
+        if (!student.enlist(section, prerequisiteGraph)) {
+            return false;
+        }
+        try {
+            section.checkSeatClaimed(sectionRepo.claimSeat(command.sectionId));
+        } catch (EnlistmentException e) {
+            student.cancel(section); // undo, as the rest of the batch is still committed
+            throw e;
+        }
+        return true;
+    }
+
+    private static class Command {
+        private final boolean enlist;
+        private final int studentNumber;
+        private final String sectionId;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        Command(boolean enlist, int studentNumber, String sectionId) {
+            notBlank(sectionId);
+            this.enlist = enlist;
+            this.studentNumber = studentNumber;
+            this.sectionId = sectionId;
+        }
+
+        @Override
+        public String toString() {
+            return (enlist ? "enlist" : "cancel") + " student #" + studentNumber + " in section " + sectionId;
+        }
+    }
+
+    /** One owner thread & its mailbox **/
+    private class Worker extends Thread {
+        private final BlockingQueue<Command> mailbox = new LinkedBlockingQueue<>();
+
+        Worker(String name) {
+            super(name);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            List<Command> batch = new ArrayList<>(MAX_BATCH);
+            try {
+                // the flag too, as a batch may swallow the interrupt, e.g. in a JDBC driver
+                while (!stopped && !isInterrupted()) {
+                    try {
+                        Command first = mailbox.poll(STOP_CHECK_SECONDS, TimeUnit.SECONDS);
+                        if (first == null) {
+                            continue;
+                        }
+                        batch.add(first);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    mailbox.drainTo(batch, MAX_BATCH - 1);
+                    try {
+                        apply(batch);
+                    } catch (Throwable e) { // Errors too, so no caller is left waiting & the worker keeps going
+                        batch.forEach(command -> command.result.completeExceptionally(e));
+                    }
+                    batch.clear();
+                }
+            } finally {
+                failPending();
+            }
+        }
+
+        /** Completes the commands still in the mailbox exceptionally, as no one will apply them **/
+        private void failPending() {
+            List<Command> pending = new ArrayList<>();
+            mailbox.drainTo(pending);
+            pending.forEach(command -> command.result.completeExceptionally(
+                    new IllegalStateException("shut down before " + command)));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.orangeandbronze.enlistment.domain;
+
+import java.util.*;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * A student's Eligibility for each of a list of sections, so the listings can show which ones are blocked, and why,
+ * before anything is submitted. Works off SectionSummary read models, not entities: the enlisted sections are folded
+ * into one schedule slot mask & a set of subjects, and the subjects taken into a PrerequisiteGraph bitset, once; then
+ * each section is a few mask & bitset operations, checked in the same order as Student.enlist, w/o any exception.
+ **/
+public class EnlistmentEligibility {
+
+    private final long scheduleOccupancy;
+    private final Set<String> enlistedSubjectIds = new HashSet<>();
+    private final PrerequisiteGraph prerequisiteGraph;
+    private final PrerequisiteGraph.SubjectSet subjectsTaken;
+
+    public EnlistmentEligibility(Collection<SectionSummary> enlistedSections, Collection<String> subjectIdsTaken,
+                                 PrerequisiteGraph prerequisiteGraph) {
+        notNull(enlistedSections);
+        notNull(subjectIdsTaken);
+        notNull(prerequisiteGraph);
+        long occupancy = 0;
+        for (SectionSummary section : enlistedSections) {
+            occupancy |= slotMask(section);
+            enlistedSubjectIds.add(section.getSubject());
+        }
+        this.scheduleOccupancy = occupancy;
+        this.prerequisiteGraph = prerequisiteGraph;
+        List<Subject> taken = new ArrayList<>(subjectIdsTaken.size());
+        subjectIdsTaken.forEach(subjectId -> taken.add(new Subject(subjectId)));
+        this.subjectsTaken = prerequisiteGraph.newSubjectSet(taken);
+    }
+
+    /** Each section's Eligibility by sectionId, in the sections' order **/
+    public Map<String, Eligibility> of(Collection<SectionSummary> sections) {
+        notNull(sections);
+        Map<String, Eligibility> eligibility = new LinkedHashMap<>();
+        // prerequisites depend only on the subject, and a page holds several sections of the same subject
+        Map<String, Boolean> prereqsMet = new HashMap<>();
+        for (SectionSummary section : sections) {
+            Eligibility status;
+            if ((scheduleOccupancy & slotMask(section)) != 0) {
+                status = Eligibility.SCHEDULE_CONFLICT;
+            } else if (enlistedSubjectIds.contains(section.getSubject())) {
+                status = Eligibility.SAME_SUBJECT;
+            } else if (!prereqsMet.computeIfAbsent(section.getSubject(), subjectId ->
+                    prerequisiteGraph.hasPrereqs(new Subject(subjectId), subjectsTaken))) {
+                status = Eligibility.MISSING_PREREQUISITES;
+            } else if (section.getSeatsLeft() == 0) {
+                status = Eligibility.FULL;
+            } else {
+                status = Eligibility.ENLISTABLE;
+            }
+            eligibility.put(section.getSectionId(), status);
+        }
+        return eligibility;
+    }
+
+    private static long slotMask(SectionSummary section) {
+        return section.getSchedule() == null ? 0 : section.getSchedule().slotMask();
+    }
+}
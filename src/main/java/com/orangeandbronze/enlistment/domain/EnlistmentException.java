@@ -1,7 +1,29 @@
 package com.orangeandbronze.enlistment.domain;
 
+/**
+ * A broken enlistment rule. Rejections are routine and only their message is ever shown, so no stack trace is filled
+ * in; one thrown for a Violation builds its message from it only when asked for.
+ **/
 public class EnlistmentException extends RuntimeException {
+    private final Violation violation;
+
     public EnlistmentException(String msg) {
-        super(msg);
+        super(msg, null, true, false);
+        this.violation = null;
+    }
+
+    EnlistmentException(Violation violation) {
+        super(null, null, true, false);
+        this.violation = violation;
+    }
+
+    @Override
+    public String getMessage() {
+        return violation == null ? super.getMessage() : violation.getMessage();
+    }
+
+    /** The Violation this was thrown for, null if it wasn't thrown by a rule check **/
+    public Violation getViolation() {
+        return violation;
     }
 }
@@ -1,5 +1,8 @@
 package com.orangeandbronze.enlistment.domain;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 import java.util.Objects;
 
@@ -8,6 +11,8 @@ import static org.apache.commons.lang3.Validate.notBlank;
 
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
 public class Faculty {
     @Id
     private final int facultyNumber;
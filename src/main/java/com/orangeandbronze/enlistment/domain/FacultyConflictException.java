@@ -6,4 +6,12 @@ class FacultyConflictException extends EnlistmentException {
         super(msg);
     }
 
+    FacultyConflictException(Violation violation) {
+        super(violation);
+    }
+
+    FacultyConflictException(String sectionId, String newSectionId, Faculty instructor) {
+        this(Violation.of(Violation.Rule.INSTRUCTOR_CONFLICT, sectionId, newSectionId, instructor));
+    }
+
 }
@@ -3,7 +3,15 @@ package com.orangeandbronze.enlistment.domain;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.*;
 
+import javax.persistence.QueryHint;
+import java.util.*;
+
 @Repository
 public interface FacultyRepository extends JpaRepository<Faculty, Integer> {
 
+    /** Served from the query cache; see ReferenceDataCache **/
+    @Override
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    List<Faculty> findAll();
+
 }
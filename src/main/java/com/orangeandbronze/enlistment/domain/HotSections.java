@@ -0,0 +1,108 @@
+package com.orangeandbronze.enlistment.domain;
+
+import org.springframework.beans.factory.annotation.*;
+import org.springframework.boot.context.event.*;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.*;
+import org.springframework.transaction.*;
+import org.springframework.transaction.support.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * Decides which sections have their seats sharded (see SectionSeats): the ones listed in
+ * "enlistment.seat-shards.hot-sections", sharded at startup, and any section whose lock is waited on for longer than
+ * CONTENDED_WAIT_NANOS at least "enlistment.seat-shards.contended-waits" times within a minute. A section detected as
+ * hot is sharded in a transaction of its own, after the transaction that detected it completes.
+ **/
+@Component
+public class HotSections {
+
+    static final long CONTENDED_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    static final long WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final SectionRepository sectionRepo;
+    private final TransactionTemplate newTransaction;
+    private final int shards;
+    private final int contendedWaits;
+    private final String[] configuredHotSections;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final Set<String> sharded = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    HotSections(SectionRepository sectionRepo, PlatformTransactionManager transactionManager,
+                @Value("${enlistment.seat-shards.count:8}") int shards,
+                @Value("${enlistment.seat-shards.contended-waits:100}") int contendedWaits,
+                @Value("${enlistment.seat-shards.hot-sections:}") String[] configuredHotSections) {
+        notNull(sectionRepo);
+        notNull(transactionManager);
+        inclusiveBetween(2, SectionSeatsImpl.MAX_SEAT_SHARDS, shards,
+                "enlistment.seat-shards.count must be from 2 to " + SectionSeatsImpl.MAX_SEAT_SHARDS + ", was: " + shards);
+        notNull(configuredHotSections);
+        this.sectionRepo = sectionRepo;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.shards = shards;
+        this.contendedWaits = contendedWaits;
+        this.configuredHotSections = configuredHotSections;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void shardConfiguredHotSections() {
+        for (String sectionId : configuredHotSections) {
+            if (!sectionId.isBlank()) {
+                shard(sectionId.trim());
+            }
+        }
+    }
+
+    /** Counts a wait for the section's lock; 0 or fewer "enlistment.seat-shards.contended-waits" turns detection off **/
+    void lockWaited(String sectionId, long waitNanos) {
+        if (contendedWaits <= 0 || waitNanos < CONTENDED_WAIT_NANOS || sharded.contains(sectionId)) {
+            return;
+        }
+        if (windows.computeIfAbsent(sectionId, id -> new Window()).countContendedWait() < contendedWaits) {
+            return;
+        }
+        windows.remove(sectionId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    shard(sectionId);
+                }
+            });
+        } else {
+            shard(sectionId);
+        }
+    }
+
+    private void shard(String sectionId) {
+        if (sharded.add(sectionId)) {
+            try {
+                newTransaction.executeWithoutResult(status -> sectionRepo.shardSeats(sectionId, shards));
+            } catch (RuntimeException e) {
+                sharded.remove(sectionId); // not sharded after all, so it can be detected & sharded again
+                throw e;
+            }
+        }
+    }
+
+    /** Contended waits for one section's lock within the current minute **/
+    private static class Window {
+        private long start = System.nanoTime();
+        private int waits;
+
+        synchronized int countContendedWait() {
+            long now = System.nanoTime();
+            if (now - start > WINDOW_NANOS) {
+                start = now;
+                waits = 0;
+            }
+            return ++waits;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.orangeandbronze.enlistment.domain;
+
+import java.util.*;
+
+/** Outcome of a bulk import: how many records were written, and every line that was rejected & why **/
+public class ImportReport {
+    private int linesRead;
+    private int imported;
+    private final List<RejectedLine> rejected = new ArrayList<>();
+
+    void lineRead() {
+        linesRead++;
+    }
+
+    void imported(int count) {
+        imported += count;
+    }
+
+    void reject(int lineNumber, String line, String reason) {
+        rejected.add(new RejectedLine(lineNumber, line, reason));
+    }
+
+    public int getLinesRead() {
+        return linesRead;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public List<RejectedLine> getRejected() {
+        return Collections.unmodifiableList(rejected);
+    }
+
+    @Override
+    public String toString() {
+        return "read " + linesRead + " lines, imported " + imported + ", rejected " + rejected.size();
+    }
+
+    public static class RejectedLine {
+        private final int lineNumber;
+        private final String line;
+        private final String reason;
+
+        private RejectedLine(int lineNumber, String line, String reason) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+            this.reason = reason;
+        }
+
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        public String getLine() {
+            return line;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "line " + lineNumber + ": " + reason;
+        }
+    }
+}
@@ -8,16 +8,26 @@ import static org.apache.commons.lang3.Validate.*;
 @Embeddable
 public class Period {
 
+    static final LocalTime GRID_START = LocalTime.of(8, 30);
+    static final LocalTime GRID_END = LocalTime.of(17, 30);
+    static final int SLOT_MINUTES = 30;
+    /** Number of half-hour slots between 8:30am and 5:30pm **/
+    static final int SLOTS_PER_DAY = (int) Duration.between(GRID_START, GRID_END).toMinutes() / SLOT_MINUTES;
+
     private final LocalTime startTime;
     private final LocalTime endTime;
 
+    // one bit per half-hour slot occupied by this period, computed on first use since JPA bypasses the constructor
+    @Transient
+    private long slotMask;
+
     public Period(LocalTime startTime, LocalTime endTime) {
         notNull(startTime);
         notNull(endTime);
         isTrue(startTime.isBefore(endTime),
                 "startTime must be before endTime; startTime: " + startTime + " endTime: " + endTime);
-        isTrue(!startTime.isBefore(LocalTime.of(8, 30)), "startTime can't be before 8:30am, was: " + startTime);
-        isTrue(!endTime.isAfter(LocalTime.of(17, 30)), "endTime can't be after 5:30pm, was " + endTime);
+        isTrue(!startTime.isBefore(GRID_START), "startTime can't be before 8:30am, was: " + startTime);
+        isTrue(!endTime.isAfter(GRID_END), "endTime can't be after 5:30pm, was " + endTime);
         checkIf30MinIncrement(startTime);
         checkIf30MinIncrement(endTime);
         this.startTime = startTime;
@@ -33,13 +43,33 @@ public class Period {
     }
 
     void checkEnlistmentOverlap(Period other) {
-        if (this.startTime.isBefore(other.endTime) && this.endTime.isAfter(other.startTime)) {
-            throw new ScheduleConflictException("Period overlap between this: " + this + " & other: " + other);
-        }
+        validateEnlistmentOverlap(other).throwIfViolated();
+    }
+
+    Violation validateEnlistmentOverlap(Period other) {
+        return overlaps(other) ? Violation.of(Violation.Rule.SCHEDULE_CONFLICT, this, other) : Violation.NONE;
     }
 
     boolean checkNewSectionOverlap(Period other) {
-        return this.startTime.isBefore(other.endTime) && this.endTime.isAfter(other.startTime);
+        return overlaps(other);
+    }
+
+    private boolean overlaps(Period other) {
+        return (this.slotMask() & other.slotMask()) != 0;
+    }
+
+    /** Bits 0 to SLOTS_PER_DAY - 1, one per half-hour slot starting at 8:30am, set for each slot this period covers **/
+    long slotMask() {
+        if (slotMask == 0) {
+            int startSlot = toSlot(startTime);
+            int endSlot = toSlot(endTime);
+            slotMask = ((1L << (endSlot - startSlot)) - 1) << startSlot;
+        }
+        return slotMask;
+    }
+
+    private static int toSlot(LocalTime time) {
+        return (int) Duration.between(GRID_START, time).toMinutes() / SLOT_MINUTES;
     }
 
     @Override
@@ -4,4 +4,8 @@ class PrereqMissingException extends EnlistmentException {
     PrereqMissingException(String msg) {
         super(msg);
     }
+
+    PrereqMissingException(Violation violation) {
+        super(violation);
+    }
 }
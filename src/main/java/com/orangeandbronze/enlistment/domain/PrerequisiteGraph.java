@@ -0,0 +1,201 @@
+package com.orangeandbronze.enlistment.domain;
+
+import org.springframework.beans.factory.annotation.*;
+import org.springframework.stereotype.*;
+
+import javax.annotation.*;
+import java.util.*;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * The subject catalog's prerequisites, compiled into bitsets. Every subject gets a dense index, and its direct &
+ * transitive prerequisites are stored as long[] bitsets over those indices, so checking a student's subjects taken
+ * against a subject's prerequisites is a word-by-word "andNot" with no allocation.
+ * Built from the SubjectRepository at startup, and rebuilt when a subject not yet in the graph is encountered.
+ **/
+@Component
+public class PrerequisiteGraph {
+
+    private final SubjectRepository subjectRepo;
+    private volatile Snapshot snapshot = new Snapshot(Collections.emptyList());
+
+    @Autowired
+    public PrerequisiteGraph(SubjectRepository subjectRepo) {
+        notNull(subjectRepo);
+        this.subjectRepo = subjectRepo;
+    }
+
+    PrerequisiteGraph(Collection<Subject> subjects) {
+        this.subjectRepo = null;
+        this.snapshot = new Snapshot(subjects);
+    }
+
+    @PostConstruct
+    public synchronized void rebuild() {
+        snapshot = new Snapshot(subjectRepo.findAllWithPrerequisites());
+    }
+
+    /** Bitset of the given subjects, which keeps itself up to date with this graph when the graph is rebuilt **/
+    public SubjectSet newSubjectSet(Collection<Subject> subjects) {
+        notNull(subjects);
+        return new SubjectSet(subjects);
+    }
+
+    void checkPrereqs(Subject subject, SubjectSet subjectsTaken) {
+        validatePrereqs(subject, subjectsTaken).throwIfViolated();
+    }
+
+    /** Same check as checkPrereqs, w/o the exception; the missing prerequisites are only collected if there are any **/
+    Violation validatePrereqs(Subject subject, SubjectSet subjectsTaken) {
+        notNull(subject);
+        notNull(subjectsTaken);
+        Snapshot current = indexing(subject);
+        long[] prereqs = current.directPrereqs[current.indexOf(subject)];
+        long[] taken = subjectsTaken.wordsFor(current);
+        if (missesAny(prereqs, taken)) {
+            return Violation.of(Violation.Rule.MISSING_PREREQUISITES, current.missing(prereqs, taken));
+        }
+        return Violation.NONE;
+    }
+
+    /** Same check again, w/ nothing allocated: true if every direct prerequisite of the subject was taken **/
+    boolean hasPrereqs(Subject subject, SubjectSet subjectsTaken) {
+        notNull(subject);
+        notNull(subjectsTaken);
+        Snapshot current = indexing(subject);
+        return !missesAny(current.directPrereqs[current.indexOf(subject)], subjectsTaken.wordsFor(current));
+    }
+
+    private static boolean missesAny(long[] prereqs, long[] taken) {
+        for (int i = 0; i < prereqs.length; i++) {
+            if ((prereqs[i] & ~taken[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** All subjects that must be taken, directly or through other prerequisites, before the given subject **/
+    public Collection<Subject> getAllPrerequisites(Subject subject) {
+        notNull(subject);
+        Snapshot current = indexing(subject);
+        return current.subjectsIn(current.transitivePrereqs[current.indexOf(subject)]);
+    }
+
+    /** Returns the current snapshot, rebuilding it first if the subject was added to the catalog after it was built **/
+    private Snapshot indexing(Subject subject) {
+        Snapshot current = snapshot;
+        if (current.indexOf(subject) < 0) {
+            synchronized (this) {
+                if (snapshot.indexOf(subject) < 0 && subjectRepo != null) {
+                    rebuild();
+                }
+                current = snapshot;
+            }
+            isTrue(current.indexOf(subject) >= 0, "subject not found in catalog: " + subject);
+        }
+        return current;
+    }
+
+    /** Subjects as a bitset over a Snapshot's indices; re-indexed only when the graph has been rebuilt since **/
+    public static class SubjectSet {
+        private final Collection<Subject> subjects;
+        private Snapshot indexedBy;
+        private long[] words;
+
+        private SubjectSet(Collection<Subject> subjects) {
+            this.subjects = subjects;
+        }
+
+        private long[] wordsFor(Snapshot snapshot) {
+            if (indexedBy != snapshot) {
+                words = snapshot.toWords(subjects);
+                indexedBy = snapshot;
+            }
+            return words;
+        }
+    }
+
+    private static class Snapshot {
+        private final Subject[] subjects;
+        private final Map<Subject, Integer> indices = new HashMap<>();
+        private final long[][] directPrereqs;
+        private final long[][] transitivePrereqs;
+        private final int wordCount;
+
+        private Snapshot(Collection<Subject> catalog) {
+            subjects = catalog.toArray(new Subject[0]);
+            for (int i = 0; i < subjects.length; i++) {
+                indices.put(subjects[i], i);
+            }
+            wordCount = (subjects.length + Long.SIZE - 1) / Long.SIZE;
+            directPrereqs = new long[subjects.length][];
+            for (int i = 0; i < subjects.length; i++) {
+                directPrereqs[i] = toWords(subjects[i].getPrerequisites());
+            }
+            transitivePrereqs = new long[subjects.length][];
+            int[] visiting = new int[subjects.length]; // 0 unvisited, 1 on the current path, 2 done
+            for (int i = 0; i < subjects.length; i++) {
+                close(i, visiting);
+            }
+        }
+
+        /** Depth-first transitive closure of subject i's prerequisites; a subject met again on its own path is a cycle **/
+        private long[] close(int i, int[] visiting) {
+            if (visiting[i] == 2) {
+                return transitivePrereqs[i];
+            }
+            validState(visiting[i] == 0, "prerequisite cycle found involving subject " + subjects[i]);
+            visiting[i] = 1;
+            long[] closure = directPrereqs[i].clone();
+            long[] direct = directPrereqs[i];
+            for (int w = 0; w < direct.length; w++) {
+                for (long bits = direct[w]; bits != 0; bits &= bits - 1) {
+                    long[] prereqClosure = close(w * Long.SIZE + Long.numberOfTrailingZeros(bits), visiting);
+                    for (int j = 0; j < closure.length; j++) {
+                        closure[j] |= prereqClosure[j];
+                    }
+                }
+            }
+            visiting[i] = 2;
+            transitivePrereqs[i] = closure;
+            return closure;
+        }
+
+        private int indexOf(Subject subject) {
+            Integer index = indices.get(subject);
+            return index == null ? -1 : index;
+        }
+
+        /** Subjects not in this snapshot are left out; they can't be anyone's prerequisite here **/
+        private long[] toWords(Collection<Subject> subjectsToIndex) {
+            long[] words = new long[wordCount];
+            for (Subject subject : subjectsToIndex) {
+                int index = indexOf(subject);
+                if (index >= 0) {
+                    words[index / Long.SIZE] |= 1L << index;
+                }
+            }
+            return words;
+        }
+
+        private Collection<Subject> subjectsIn(long[] words) {
+            Collection<Subject> result = new HashSet<>();
+            for (int w = 0; w < words.length; w++) {
+                for (long bits = words[w]; bits != 0; bits &= bits - 1) {
+                    result.add(subjects[w * Long.SIZE + Long.numberOfTrailingZeros(bits)]);
+                }
+            }
+            return result;
+        }
+
+        private Collection<Subject> missing(long[] prereqs, long[] taken) {
+            long[] missing = new long[prereqs.length];
+            for (int i = 0; i < prereqs.length; i++) {
+                missing[i] = prereqs[i] & ~taken[i];
+            }
+            return subjectsIn(missing);
+        }
+    }
+}
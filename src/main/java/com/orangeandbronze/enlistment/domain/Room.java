@@ -1,5 +1,8 @@
 package com.orangeandbronze.enlistment.domain;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 
 import java.util.*;
@@ -8,11 +11,15 @@ import static org.apache.commons.lang3.StringUtils.*;
 import static org.apache.commons.lang3.Validate.*;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
 public class Room {
     @Id
     private final String name;
     private final int capacity;
-    @OneToMany
+    // only sections added in memory; overlaps w/ sections already in the database are rejected by the section table's
+    // exclusion constraints (see SectionRepository.create), so a room loaded from the database starts out empty
+    @Transient
     private final Collection<Section> sections = new HashSet<>();
 
     Room(String name, int capacity, Collection<Section> sections) {
@@ -31,10 +38,12 @@ public class Room {
     }
 
     void checkIfAtOrOverCapacity(int occupancy) {
+        validateCapacity(occupancy).throwIfViolated();
+    }
+
+    Violation validateCapacity(int occupancy) {
         isTrue(occupancy >= 0, "occupancy must be non-negative, was: " + occupancy);
-        if (occupancy >= capacity) {
-            throw new CapacityException("at or over capacity of " + capacity + "  at occupancy of " + occupancy);
-        }
+        return occupancy >= capacity ? Violation.of(Violation.Rule.AT_CAPACITY, capacity, occupancy) : Violation.NONE;
     }
 
     void addSection(Section newSection) {
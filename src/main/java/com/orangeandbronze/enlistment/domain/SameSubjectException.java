@@ -5,4 +5,8 @@ class SameSubjectException extends EnlistmentException {
     SameSubjectException(String msg) {
         super(msg);
     }
+
+    SameSubjectException(Violation violation) {
+        super(violation);
+    }
 }
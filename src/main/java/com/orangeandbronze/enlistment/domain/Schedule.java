@@ -10,6 +10,10 @@ public class Schedule {
     @Embedded
     private final Period period;
 
+    // the period's slot mask shifted into this schedule's days; see slotMask()
+    @Transient
+    private long slotMask;
+
     public Schedule(Days days, Period period) {
         notNull(days);
         notNull(period);
@@ -18,13 +22,30 @@ public class Schedule {
     }
 
     void checkEnlistmentOverlap(Schedule other) {
-        if (this.days.equals(other.days)) {
-            this.period.checkEnlistmentOverlap(other.period);
-        }
+        validateEnlistmentOverlap(other).throwIfViolated();
+    }
+
+    Violation validateEnlistmentOverlap(Schedule other) {
+        return this.days.equals(other.days) ? this.period.validateEnlistmentOverlap(other.period) : Violation.NONE;
     }
 
     boolean checkNewSectionOverlap(Schedule other) {
-        return this.days.equals(other.days) && this.period.checkNewSectionOverlap(other.period);
+        return overlaps(other);
+    }
+
+    boolean overlaps(Schedule other) {
+        return (this.slotMask() & other.slotMask()) != 0;
+    }
+
+    /**
+     * Half-hour slots occupied by this schedule in the whole week, packed in one long:
+     * each Days value gets its own block of Period.SLOTS_PER_DAY bits, so two schedules conflict iff their masks intersect
+     **/
+    long slotMask() {
+        if (slotMask == 0) {
+            slotMask = period.slotMask() << (days.ordinal() * Period.SLOTS_PER_DAY);
+        }
+        return slotMask;
     }
 
     @Override
@@ -4,4 +4,8 @@ class ScheduleConflictException extends EnlistmentException {
     ScheduleConflictException(String msg) {
         super(msg);
     }
+
+    ScheduleConflictException(Violation violation) {
+        super(violation);
+    }
 }
@@ -0,0 +1,47 @@
+package com.orangeandbronze.enlistment.domain;
+
+import java.util.*;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * Schedules of sections grouped by a key, such as a room or an instructor, for overlap checks without queries.
+ * Each key's schedules are also kept as the union of their week slot masks (see Schedule.slotMask()), so a schedule
+ * that overlaps nothing costs one map lookup & one AND; only an overlap walks the key's schedules to find which one.
+ **/
+class ScheduleIndex<K> {
+
+    private final Map<K, Long> occupiedSlots = new HashMap<>();
+    private final Map<K, List<Entry>> entries = new HashMap<>();
+
+    /** The section under the key whose schedule overlaps the given one, or null if there is none **/
+    Entry findOverlap(K key, Schedule schedule) {
+        notNull(schedule);
+        if ((occupiedSlots.getOrDefault(key, 0L) & schedule.slotMask()) == 0) {
+            return null;
+        }
+        for (Entry entry : entries.get(key)) {
+            if (entry.schedule.overlaps(schedule)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    void add(K key, String sectionId, Schedule schedule) {
+        notNull(key);
+        notNull(schedule);
+        occupiedSlots.merge(key, schedule.slotMask(), (slots, newSlots) -> slots | newSlots);
+        entries.computeIfAbsent(key, k -> new ArrayList<>()).add(new Entry(sectionId, schedule));
+    }
+
+    static class Entry {
+        final String sectionId;
+        final Schedule schedule;
+
+        private Entry(String sectionId, Schedule schedule) {
+            this.sectionId = sectionId;
+            this.schedule = schedule;
+        }
+    }
+}
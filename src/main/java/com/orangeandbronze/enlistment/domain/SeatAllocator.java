@@ -0,0 +1,181 @@
+package com.orangeandbronze.enlistment.domain;
+
+import org.springframework.beans.factory.annotation.*;
+import org.springframework.jdbc.core.*;
+import org.springframework.stereotype.*;
+
+import javax.persistence.*;
+import javax.transaction.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.*;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * Assigns seats from the students' WishLists in one offline run, instead of first come first served. Students are
+ * ordered by a lottery drawn from a seed, then seats are given out in rounds: in round k every student's k-th wish is
+ * checked against the sections they have so far w/ the same rules as Student.enlist, each wished-for section's seats
+ * left go to its candidates in lottery order, and they are enlisted. Within a round the students, then the sections,
+ * are processed in parallel on the fork/join common pool. Everything is read up front & the enlistments are written at
+ * the end in JDBC batches, all or none. Meant to run before enlistment opens; sections w/ sharded seats are skipped.
+ **/
+@Component
+public class SeatAllocator {
+
+    private static final String INSERT_ENLISTMENT = "INSERT INTO student_sections (student_student_number, " +
+            "sections_section_id) VALUES (?, ?)";
+    private static final String TAKE_SEATS = "UPDATE section SET number_of_students = number_of_students + ? " +
+            "WHERE section_id = ? AND seat_shards = 0 " +
+            "AND number_of_students + ? <= (SELECT room.capacity FROM room WHERE room.name = section.room_name)";
+
+    private final StudentRepository studentRepo;
+    private final SectionRepository sectionRepo;
+    private final WishLists wishLists;
+    private final PrerequisiteGraph prerequisiteGraph;
+    private final JdbcTemplate jdbcTemplate;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public SeatAllocator(StudentRepository studentRepo, SectionRepository sectionRepo, WishLists wishLists,
+                         PrerequisiteGraph prerequisiteGraph, JdbcTemplate jdbcTemplate) {
+        notNull(studentRepo);
+        notNull(sectionRepo);
+        notNull(wishLists);
+        notNull(prerequisiteGraph);
+        notNull(jdbcTemplate);
+        this.studentRepo = studentRepo;
+        this.sectionRepo = sectionRepo;
+        this.wishLists = wishLists;
+        this.prerequisiteGraph = prerequisiteGraph;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Allocates seats for every wish list, w/ the lottery drawn from the seed **/
+    @Transactional
+    public AllocationReport allocateSeats(long seed) {
+        Map<Integer, List<String>> wishedSectionIds = wishLists.findAll();
+        List<Student> students = studentRepo.findAllWithSections(wishedSectionIds.keySet());
+        studentRepo.findAllWithSubjectsTaken(wishedSectionIds.keySet());
+        Map<String, Section> sections = new HashMap<>();
+        sectionRepo.findAllById(wishedSectionIds.values().stream().flatMap(List::stream).collect(Collectors.toSet()))
+                .forEach(section -> sections.put(section.getSectionId(), section));
+        // from here on students & sections are only changed in memory, never flushed; the results are written by JDBC
+        entityManager.clear();
+
+        Map<Integer, List<Section>> wishes = new HashMap<>();
+        wishedSectionIds.forEach((studentNumber, sectionIds) -> wishes.put(studentNumber,
+                sectionIds.stream().map(sections::get).filter(Objects::nonNull).collect(Collectors.toList())));
+        List<Student> lottery = new ArrayList<>(students);
+        lottery.sort(Comparator.comparingInt(Student::getStudentNumber));
+        Collections.shuffle(lottery, new Random(seed));
+        Allocation allocation = allocate(lottery, wishes);
+        write(allocation);
+        return new AllocationReport(lottery.size(), allocation.size(), allocation.rejected);
+    }
+
+    /** Enlists the students in memory in their wished-for sections, in rounds by rank, contested seats by lottery **/
+    Allocation allocate(List<Student> lottery, Map<Integer, List<Section>> wishes) {
+        Map<Integer, Integer> lotteryPositions = new HashMap<>();
+        lottery.forEach(student -> lotteryPositions.put(student.getStudentNumber(), lotteryPositions.size()));
+        Queue<AllocationReport.RejectedWish> rejected = new ConcurrentLinkedQueue<>();
+        Allocation allocation = new Allocation();
+        int rounds = wishes.values().stream().mapToInt(List::size).max().orElse(0);
+        for (int round = 0; round < rounds; round++) {
+            final int rank = round;
+            // each student's wish for this round, checked against their sections so far
+            Map<Section, List<Student>> candidates = lottery.parallelStream()
+                    .filter(student -> wishes.getOrDefault(student.getStudentNumber(), List.of()).size() > rank)
+                    .filter(student -> canEnlist(student, wishes.get(student.getStudentNumber()).get(rank), rejected))
+                    .collect(Collectors.groupingByConcurrent(student -> wishes.get(student.getStudentNumber()).get(rank)));
+            // each section's seats left go to its candidates in lottery order
+            Map<Section, List<Student>> granted = new ConcurrentHashMap<>();
+            candidates.entrySet().parallelStream().forEach(entry -> {
+                Section section = entry.getKey();
+                List<Student> students = new ArrayList<>(entry.getValue());
+                students.sort(Comparator.comparing(student -> lotteryPositions.get(student.getStudentNumber())));
+                int seatsLeft = Math.max(0, section.getRoom().getCapacity() - section.getNumberOfStudents());
+                granted.put(section, students.subList(0, Math.min(seatsLeft, students.size())));
+                students.subList(Math.min(seatsLeft, students.size()), students.size()).forEach(student ->
+                        rejected.add(new AllocationReport.RejectedWish(student.getStudentNumber(), section.getSectionId(),
+                                "no seats left for students drawn later in the lottery")));
+            });
+            // a student gets at most one section a round, so students are enlisted in parallel
+            granted.entrySet().parallelStream().flatMap(entry -> entry.getValue().stream()
+                    .map(student -> Map.entry(student, entry.getKey()))).forEach(wish -> {
+                try {
+                    wish.getKey().enlist(wish.getValue(), prerequisiteGraph);
+                } catch (EnlistmentException e) {
+                    rejected.add(new AllocationReport.RejectedWish(wish.getKey().getStudentNumber(),
+                            wish.getValue().getSectionId(), e.getMessage())); // the seat set aside stays free
+                }
+            });
+            granted.forEach((section, students) -> students.stream().filter(student -> student.isEnlistedIn(section))
+                    .forEach(student -> allocation.add(section, student)));
+        }
+        allocation.rejected.addAll(rejected);
+        allocation.rejected.sort(Comparator.comparingInt(AllocationReport.RejectedWish::getStudentNumber));
+        return allocation;
+    }
+
+    private boolean canEnlist(Student student, Section section, Queue<AllocationReport.RejectedWish> rejected) {
+        if (student.isEnlistedIn(section)) {
+            return false;
+        }
+        if (section.hasShardedSeats()) {
+            rejected.add(new AllocationReport.RejectedWish(student.getStudentNumber(), section.getSectionId(),
+                    "Section " + section + " is hot, its seats go first come first served"));
+            return false;
+        }
+        Violation violation = student.validateEnlist(section, prerequisiteGraph);
+        if (violation.isViolated()) {
+            rejected.add(new AllocationReport.RejectedWish(student.getStudentNumber(), section.getSectionId(),
+                    violation.getMessage()));
+            return false;
+        }
+        return true;
+    }
+
+    private void write(Allocation allocation) {
+        List<Object[]> enlistments = new ArrayList<>();
+        List<Object[]> seatsTaken = new ArrayList<>();
+        allocation.enlisted.forEach((sectionId, studentNumbers) -> {
+            studentNumbers.forEach(studentNumber -> enlistments.add(new Object[]{studentNumber, sectionId}));
+            seatsTaken.add(new Object[]{studentNumbers.size(), sectionId, studentNumbers.size()});
+        });
+        if (enlistments.isEmpty()) {
+            return;
+        }
+        int[] updated = jdbcTemplate.batchUpdate(TAKE_SEATS, seatsTaken);
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] != 1) {
+                throw new EnlistmentException("Section " + seatsTaken.get(i)[1] + " took enlistments while seats were " +
+                        "being allocated, so none were; please allocate again");
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_ENLISTMENT, enlistments);
+    }
+
+    /** Students enlisted by an allocation by sectionId, & the wishes it rejected **/
+    static class Allocation {
+        private final SortedMap<String, List<Integer>> enlisted = new TreeMap<>();
+        private final List<AllocationReport.RejectedWish> rejected = new ArrayList<>();
+
+        private void add(Section section, Student student) {
+            enlisted.computeIfAbsent(section.getSectionId(), sectionId -> new ArrayList<>()).add(student.getStudentNumber());
+        }
+
+        int size() {
+            return enlisted.values().stream().mapToInt(List::size).sum();
+        }
+
+        SortedMap<String, List<Integer>> getEnlisted() {
+            return Collections.unmodifiableSortedMap(enlisted);
+        }
+
+        List<AllocationReport.RejectedWish> getRejected() {
+            return Collections.unmodifiableList(rejected);
+        }
+    }
+}
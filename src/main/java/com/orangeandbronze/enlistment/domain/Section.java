@@ -4,12 +4,17 @@ import org.hibernate.annotations.ColumnDefault;
 
 import javax.persistence.*;
 import java.util.*;
-import java.util.concurrent.locks.*;
 
 import static org.apache.commons.lang3.StringUtils.*;
 import static org.apache.commons.lang3.Validate.*;
 
 @Entity
+// keyset pagination & the section listing filters walk these in section_id order; kept in sync w/ the Liquibase changelog
+@Table(indexes = {
+        @Index(name = "idx_section_days", columnList = "days, sectionId"),
+        @Index(name = "idx_section_subject", columnList = "subject_subject_id, sectionId"),
+        @Index(name = "idx_section_instructor", columnList = "instructor_faculty_number, sectionId")
+})
 public class Section {
     @Id
     private final String sectionId;
@@ -21,23 +26,24 @@ public class Section {
     private final Room room;
     @ManyToOne
     private final Faculty instructor;
+    // seats are claimed & released in the database by SectionRepository, so the entity never writes this on update
+    @Column(updatable = false)
     private int numberOfStudents = 0;
 
+    // number of section_seat_shard rows the seats of a hot section are counted on, 0 if they are counted on this row;
+    // only ever set by SectionRepository.shardSeats
+    @ColumnDefault("0")
+    @Column(insertable = false, updatable = false)
+    private int seatShards;
+
     // everytime a section gets saved in the database (repository save() method), the version increments itself
     @Version
     @ColumnDefault("0")
     private final int version = 0;
 
-    @Transient
-    private final ReentrantLock lock = new ReentrantLock();
-
     public Section(String sectionId, Subject subject, Schedule schedule, Room room, Faculty instructor) {
-        notBlank(sectionId,
-                "sectionId can't be null, empty or whitespace ");
+        checkSectionId(sectionId);
         notNull(subject);
-        isTrue(isAlphanumeric(sectionId),
-                "sectionId must be alphanumeric, was: "
-                        + sectionId);
         notNull(room);
         notNull(instructor);
         this.sectionId = sectionId;
@@ -48,6 +54,15 @@ public class Section {
         this.instructor = instructor;
     }
 
+    /** What a sectionId must be, checked w/o creating a section, which would register it w/ its room **/
+    static void checkSectionId(String sectionId) {
+        notBlank(sectionId,
+                "sectionId can't be null, empty or whitespace ");
+        isTrue(isAlphanumeric(sectionId),
+                "sectionId must be alphanumeric, was: "
+                        + sectionId);
+    }
+
     Section(String sectionId, Subject subject, Schedule schedule, Room room, Faculty instructor, int numberOfStudents) {
         this(sectionId, subject, schedule, room, instructor);
         isTrue(numberOfStudents >= 0,
@@ -56,54 +71,85 @@ public class Section {
     }
 
     void checkSameSubject(Section other) {
-        if (this.subject.equals(other.subject)) {
-            throw new SameSubjectException("This section " + this + " & other section " + other +
-                    " have same subject of " + subject);
-        }
+        validateSameSubject(other).throwIfViolated();
+    }
+
+    Violation validateSameSubject(Section other) {
+        return this.subject.equals(other.subject) ?
+                Violation.of(Violation.Rule.SAME_SUBJECT, this, other, subject) : Violation.NONE;
     }
 
     void checkForScheduleConflict(Section other) {
-        this.schedule.checkEnlistmentOverlap(other.schedule);
+        validateScheduleConflict(other).throwIfViolated();
+    }
+
+    Violation validateScheduleConflict(Section other) {
+        return this.schedule.validateEnlistmentOverlap(other.schedule);
+    }
+
+    long getScheduleSlotMask() {
+        return schedule.slotMask();
     }
 
     public void checkScheduleAndInstructor(Section other) {
-        if (this.schedule.checkNewSectionOverlap(other.schedule) && this.instructor.equals(other.instructor)) {
-            throw new FacultyConflictException("Section " + this + " & new section " + other +
-                    " cannot have the same instructor #" + instructor + " as they have overlapping schedules");
-        }
+        validateScheduleAndInstructor(other).throwIfViolated();
+    }
+
+    public Violation validateScheduleAndInstructor(Section other) {
+        return this.schedule.checkNewSectionOverlap(other.schedule) && this.instructor.equals(other.instructor) ?
+                Violation.of(Violation.Rule.INSTRUCTOR_CONFLICT, sectionId, other.sectionId, instructor) : Violation.NONE;
     }
 
     int getNumberOfStudents() {
         return numberOfStudents;
     }
 
-    void incrementNumberOfStudents() {
+    // synchronized so the in-memory count stays w/in capacity when the same instance is shared across threads; across
+    // requests, each w/ its own instance, the seats are guarded by the SectionLockProvider & the DB instead
+    synchronized void incrementNumberOfStudents() {
         room.checkIfAtOrOverCapacity(numberOfStudents);
         numberOfStudents++;
     }
 
-    public void decrementNumberOfStudents() {
+    public synchronized void decrementNumberOfStudents() {
         numberOfStudents--;
     }
 
     void checkPrereqs(Collection<Subject> subjectsTaken) {
+        validatePrereqs(subjectsTaken).throwIfViolated();
+    }
+
+    Violation validatePrereqs(Collection<Subject> subjectsTaken) {
         notNull(subjectsTaken);
-        Collection<Subject> copy = new HashSet<>(subjectsTaken); // sets are quicker to search through
-        subject.checkPrereqs(copy);
+        return subject.validatePrereqs(subjectsTaken);
+    }
+
+    void checkPrereqs(PrerequisiteGraph prerequisiteGraph, PrerequisiteGraph.SubjectSet subjectsTaken) {
+        validatePrereqs(prerequisiteGraph, subjectsTaken).throwIfViolated();
+    }
+
+    Violation validatePrereqs(PrerequisiteGraph prerequisiteGraph, PrerequisiteGraph.SubjectSet subjectsTaken) {
+        return prerequisiteGraph.validatePrereqs(subject, subjectsTaken);
+    }
+
+    /** True if this is a hot section whose seats are counted on seat shards, which take seats w/o the section lock **/
+    public boolean hasShardedSeats() {
+        return seatShards > 0;
     }
 
     public void checkIfFull() {
-        room.checkIfAtOrOverCapacity(numberOfStudents);
+        validateNotFull().throwIfViolated();
     }
 
-    /** Locks this object's ReentrantLock **/
-    void lock() {
-        lock.lock();
+    public Violation validateNotFull() {
+        return room.validateCapacity(numberOfStudents);
     }
 
-    /** Unlock this object's ReentrantLock **/
-    void unlock() {
-        lock.unlock();
+    /** Throws a CapacityException if no seat was claimed in the database, given claimSeat's result **/
+    public void checkSeatClaimed(int claimed) {
+        if (claimed == 0) {
+            throw new CapacityException("Section " + this + " is already full at room capacity of " + room.getCapacity());
+        }
     }
 
     public String getSectionId() {
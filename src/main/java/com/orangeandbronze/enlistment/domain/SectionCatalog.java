@@ -0,0 +1,122 @@
+package com.orangeandbronze.enlistment.domain;
+
+import org.springframework.beans.factory.annotation.*;
+import org.springframework.stereotype.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+import java.util.stream.*;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * In-memory snapshot of every section, in sectionId order, serving the unfiltered section listings w/o catalog queries.
+ * The snapshot is immutable & replaced as a whole (copy-on-write), so reads take no locks. It is built on first use,
+ * dropped by invalidate when sections are added through this instance, & rebuilt once it is maxAgeSeconds old, so
+ * sections added by another instance or straight in the database show up eventually. Seat counts change on every
+ * enlistment, so only those of the page's sections are read fresh, in one query by primary key.
+ * Filtered listings need the database's indexes; see SectionSearch.
+ **/
+@Component
+public class SectionCatalog {
+
+    private final SectionRepository sectionRepo;
+    private final long maxAgeNanos;
+    private final LongSupplier nanoClock;
+    private volatile Snapshot snapshot; // null until first used & after invalidate
+
+    @Autowired
+    public SectionCatalog(SectionRepository sectionRepo,
+                          @Value("${enlistment.catalog.max-age-seconds:60}") int maxAgeSeconds) {
+        this(sectionRepo, maxAgeSeconds, System::nanoTime);
+    }
+
+    SectionCatalog(SectionRepository sectionRepo, int maxAgeSeconds, LongSupplier nanoClock) {
+        notNull(sectionRepo);
+        isTrue(maxAgeSeconds >= 1, "maxAgeSeconds must be at least 1, was: " + maxAgeSeconds);
+        notNull(nanoClock);
+        this.sectionRepo = sectionRepo;
+        this.maxAgeNanos = TimeUnit.SECONDS.toNanos(maxAgeSeconds);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Drops the snapshot, so the next read rebuilds it from the database; call after sections are added. Waits for a
+     * rebuild in progress, which may have read the sections before they were added.
+     **/
+    public synchronized void invalidate() {
+        snapshot = null;
+    }
+
+    /**
+     * A page of the sections not among the excluded ones, w/ up-to-date seat counts. Only for unfiltered listings;
+     * the filter just gives the page's position & size.
+     **/
+    public SectionPage findSections(SectionFilter filter, Collection<String> excludedSectionIds) {
+        notNull(filter);
+        notNull(excludedSectionIds);
+        isTrue(filter.isUnfiltered(), "only unfiltered listings are served from the catalog, was: " + filter);
+        Snapshot current = current();
+        int from = 0;
+        if (filter.getAfter() != null) {
+            int found = Collections.binarySearch(current.sectionIds, filter.getAfter());
+            from = found >= 0 ? found + 1 : -found - 1;
+        }
+        List<SectionSummary> page = new ArrayList<>(filter.getPageSize());
+        String nextAfter = null;
+        for (SectionSummary section : current.sections.subList(from, current.sections.size())) {
+            if (excludedSectionIds.contains(section.getSectionId())) {
+                continue;
+            }
+            if (page.size() == filter.getPageSize()) {
+                nextAfter = page.get(page.size() - 1).getSectionId();
+                break;
+            }
+            page.add(section);
+        }
+        return new SectionPage(withSeatsTaken(page), nextAfter);
+    }
+
+    private List<SectionSummary> withSeatsTaken(List<SectionSummary> sections) {
+        Map<String, Integer> seatsTaken = sectionRepo.findSeatsTaken(
+                sections.stream().map(SectionSummary::getSectionId).collect(Collectors.toList()));
+        List<SectionSummary> result = new ArrayList<>(sections.size());
+        for (SectionSummary section : sections) {
+            Integer numberOfStudents = seatsTaken.get(section.getSectionId());
+            if (numberOfStudents != null) { // else deleted since the snapshot was built
+                result.add(section.withNumberOfStudents(numberOfStudents));
+            }
+        }
+        return result;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null || nanoClock.getAsLong() - current.builtAt >= maxAgeNanos) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null || nanoClock.getAsLong() - current.builtAt >= maxAgeNanos) {
+                    current = new Snapshot(sectionRepo.findAllSectionSummaries(), nanoClock.getAsLong());
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static class Snapshot {
+        private final List<SectionSummary> sections;
+        private final List<String> sectionIds; // same order, for finding where a page starts
+        private final long builtAt;
+
+        private Snapshot(List<SectionSummary> sections, long builtAt) {
+            // sorted here rather than by the database, so the order is String's, which binarySearch expects
+            this.sections = sections.stream().sorted(Comparator.comparing(SectionSummary::getSectionId))
+                    .collect(Collectors.toUnmodifiableList());
+            this.sectionIds = this.sections.stream().map(SectionSummary::getSectionId)
+                    .collect(Collectors.toUnmodifiableList());
+            this.builtAt = builtAt;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.orangeandbronze.enlistment.domain;
+
+import org.springframework.format.annotation.*;
+
+import java.time.*;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * Criteria for browsing sections one page at a time. Every criterion is optional; a null (or false) one matches all
+ * sections. Pages are keyed on section_id: a page holds the first pageSize matching sections whose section_id comes
+ * after the given one, so fetching any page costs the same no matter how deep into the catalog it is.
+ * Bound straight from the listing pages' request parameters, through its only constructor.
+ **/
+public class SectionFilter {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final Days days;
+    private final String subjectId;
+    private final LocalTime start;
+    private final LocalTime end;
+    private final boolean hasSeatsLeft;
+    private final Integer facultyNumber;
+    private final String after;
+    private final int pageSize;
+
+    /**
+     * @param start   only sections starting at or after this time
+     * @param end     only sections ending at or before this time
+     * @param after   section_id of the last section of the previous page, null for the first page
+     **/
+    public SectionFilter(Days days, String subjectId, @DateTimeFormat(pattern = "HH:mm") LocalTime start,
+                         @DateTimeFormat(pattern = "HH:mm") LocalTime end, Boolean hasSeatsLeft,
+                         Integer facultyNumber, String after, Integer pageSize) {
+        isTrue(start == null || !start.isBefore(Period.GRID_START) && start.isBefore(Period.GRID_END),
+                "start of time window must be from 8:30am to before 5:30pm, was: " + start);
+        isTrue(end == null || end.isAfter(Period.GRID_START) && !end.isAfter(Period.GRID_END),
+                "end of time window must be from after 8:30am to 5:30pm, was: " + end);
+        isTrue(start == null || end == null || start.isBefore(end),
+                "start of time window must be before its end; start: " + start + " end: " + end);
+        isTrue(pageSize == null || pageSize > 0 && pageSize <= MAX_PAGE_SIZE,
+                "pageSize must be from 1 to " + MAX_PAGE_SIZE + ", was: " + pageSize);
+        this.days = days;
+        this.subjectId = subjectId == null || subjectId.isBlank() ? null : subjectId.trim();
+        this.start = start;
+        this.end = end;
+        this.hasSeatsLeft = hasSeatsLeft != null && hasSeatsLeft;
+        this.facultyNumber = facultyNumber;
+        this.after = after == null || after.isEmpty() ? null : after;
+        this.pageSize = pageSize == null ? DEFAULT_PAGE_SIZE : pageSize;
+    }
+
+    /** Whether no criterion narrows the sections down, so only the page's position in the catalog is asked for **/
+    public boolean isUnfiltered() {
+        return days == null && subjectId == null && start == null && end == null && !hasSeatsLeft
+                && facultyNumber == null;
+    }
+
+    public Days getDays() {
+        return days;
+    }
+
+    public String getSubjectId() {
+        return subjectId;
+    }
+
+    public LocalTime getStart() {
+        return start;
+    }
+
+    public LocalTime getEnd() {
+        return end;
+    }
+
+    public boolean isHasSeatsLeft() {
+        return hasSeatsLeft;
+    }
+
+    public Integer getFacultyNumber() {
+        return facultyNumber;
+    }
+
+    public String getAfter() {
+        return after;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    @Override
+    public String toString() {
+        return "SectionFilter{days=" + days + ", subjectId=" + subjectId + ", start=" + start + ", end=" + end +
+                ", hasSeatsLeft=" + hasSeatsLeft + ", facultyNumber=" + facultyNumber + ", after=" + after +
+                ", pageSize=" + pageSize + '}';
+    }
+}
@@ -0,0 +1,138 @@
+package com.orangeandbronze.enlistment.domain;
+
+import org.springframework.beans.factory.annotation.*;
+import org.springframework.jdbc.core.*;
+import org.springframework.stereotype.*;
+
+import javax.transaction.*;
+import java.io.*;
+import java.time.*;
+import java.util.*;
+import java.util.function.*;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * Bulk import of sections from CSV, one section per line: sectionId,subjectId,days,start,end,roomName,facultyNumber
+ * (e.g. "ABC,Math1,MTH,08:30,10:00,AS204,1"). A first line starting w/ "sectionId" is skipped as a header.
+ * <p>
+ * Lines are streamed, never held all at once. Subjects, rooms & faculty are read once into maps, and the schedules of
+ * the sections already in the database into a ScheduleIndex per room & per instructor, so checking a line takes no
+ * queries. Lines that pass go in batches of BATCH_SIZE through JDBC; lines that don't are rejected w/ the same
+ * EnlistmentException reasons as creating a section one at a time. All or none of the accepted lines are written.
+ **/
+@Component
+public class SectionImporter {
+
+    static final String HEADER = "sectionId,subjectId,days,start,end,roomName,facultyNumber";
+    private static final String INSERT_SECTION = "INSERT INTO section (section_id, number_of_students, days, start_time, " +
+            "end_time, room_name, subject_subject_id, instructor_faculty_number, version) VALUES (?, 0, ?, ?, ?, ?, ?, ?, 0)";
+
+    private final SubjectRepository subjectRepo;
+    private final RoomRepository roomRepo;
+    private final FacultyRepository facultyRepo;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public SectionImporter(SubjectRepository subjectRepo, RoomRepository roomRepo, FacultyRepository facultyRepo,
+                           JdbcTemplate jdbcTemplate) {
+        notNull(subjectRepo);
+        notNull(roomRepo);
+        notNull(facultyRepo);
+        notNull(jdbcTemplate);
+        this.subjectRepo = subjectRepo;
+        this.roomRepo = roomRepo;
+        this.facultyRepo = facultyRepo;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional
+    public ImportReport importSections(Reader csv) {
+        return importSections(csv, report -> {});
+    }
+
+    /** Same as importSections(Reader), calling progress w/ the report so far after each batch is written **/
+    @Transactional
+    public ImportReport importSections(Reader csv, Consumer<ImportReport> progress) {
+        return new SectionImport().importLines(csv, progress);
+    }
+
+    /** State of one import: the lookups, the schedule indexes, and the rows not yet written **/
+    private class SectionImport extends CsvImport {
+        private final Map<String, Subject> subjects = byId(subjectRepo.findAll(), Subject::toString);
+        private final Map<String, Room> rooms = byId(roomRepo.findAll(), Room::getName);
+        private final Map<Integer, Faculty> faculty = byId(facultyRepo.findAll(), Faculty::getFacultyNumber);
+        private final Set<String> sectionIds = new HashSet<>();
+        private final ScheduleIndex<String> roomSchedules = new ScheduleIndex<>();
+        private final ScheduleIndex<Integer> instructorSchedules = new ScheduleIndex<>();
+        private final List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+
+        private SectionImport() {
+            super(HEADER);
+            jdbcTemplate.query("SELECT section_id, days, start_time, end_time, room_name, instructor_faculty_number " +
+                    "FROM section", (RowCallbackHandler) rs -> {
+                String sectionId = rs.getString("section_id");
+                sectionIds.add(sectionId);
+                int days = rs.getInt("days");
+                if (rs.wasNull()) {
+                    return;
+                }
+                Schedule schedule = new Schedule(Days.values()[days], new Period(
+                        rs.getObject("start_time", LocalTime.class), rs.getObject("end_time", LocalTime.class)));
+                roomSchedules.add(rs.getString("room_name"), sectionId, schedule);
+                Integer instructor = rs.getObject("instructor_faculty_number", Integer.class);
+                if (instructor != null) {
+                    instructorSchedules.add(instructor, sectionId, schedule);
+                }
+            });
+        }
+
+        @Override
+        void add(String[] fields) {
+            String sectionId = fields[0];
+            String subjectId = fields[1];
+            String roomName = fields[5];
+            String facultyNumber = fields[6];
+            Section.checkSectionId(sectionId);
+            if (sectionIds.contains(sectionId)) {
+                throw new EnlistmentException("A section with section id " + sectionId + " already exists.");
+            }
+            // the subject & room are only checked to exist; the row refers to them by id
+            lookup(subjects, subjectId, "No subject found with subjectId " + subjectId);
+            lookup(rooms, roomName, "No room found with roomName " + roomName);
+            Faculty instructor = lookup(faculty, parseInt(facultyNumber),
+                    "No faculty found for facultyNumber " + facultyNumber);
+            Days days = parseDays(fields[2]);
+            LocalTime start = parseTime(fields[3]);
+            LocalTime end = parseTime(fields[4]);
+            Schedule schedule = new Schedule(days, new Period(start, end));
+
+            ScheduleIndex.Entry roomOverlap = roomSchedules.findOverlap(roomName, schedule);
+            if (roomOverlap != null) {
+                roomOverlap.schedule.checkEnlistmentOverlap(schedule);
+            }
+            ScheduleIndex.Entry instructorOverlap = instructorSchedules.findOverlap(instructor.getFacultyNumber(), schedule);
+            if (instructorOverlap != null) {
+                throw new FacultyConflictException(instructorOverlap.sectionId, sectionId, instructor);
+            }
+
+            sectionIds.add(sectionId);
+            roomSchedules.add(roomName, sectionId, schedule);
+            instructorSchedules.add(instructor.getFacultyNumber(), sectionId, schedule);
+            rows.add(new Object[]{sectionId, days.ordinal(), start, end, roomName, subjectId, instructor.getFacultyNumber()});
+        }
+
+        @Override
+        int pending() {
+            return rows.size();
+        }
+
+        @Override
+        int flush() {
+            jdbcTemplate.batchUpdate(INSERT_SECTION, rows);
+            int written = rows.size();
+            rows.clear();
+            return written;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.orangeandbronze.enlistment.domain;
+
+import java.util.*;
+
+/**
+ * Mutual exclusion per section for the length of a transaction, so enlistments into the same section are applied one
+ * at a time. Which implementation is used is set by the "enlistment.section-lock" property: "striped" (the default)
+ * only excludes requests within this app instance, "advisory" uses Postgres advisory locks & works across instances.
+ **/
+public interface SectionLockProvider {
+
+    /**
+     * Blocks until the current transaction holds the lock on the section. The lock is released when the transaction
+     * completes, whether it commits or rolls back.
+     **/
+    void lock(String sectionId);
+
+    /**
+     * Blocks until the current transaction holds the locks on all of the sections, released like lock's. They are taken
+     * in an order of the provider's own, not by sectionId, as sections can share a lock; every transaction that needs
+     * more than one section must lock them all here, in one call, or two of them could each wait on the other forever.
+     **/
+    void lockAll(Collection<String> sectionIds);
+}
@@ -0,0 +1,59 @@
+package com.orangeandbronze.enlistment.domain;
+
+import org.springframework.beans.factory.annotation.*;
+import org.springframework.stereotype.*;
+
+import java.util.*;
+import java.util.concurrent.locks.*;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * The process-wide table of section locks: a fixed, power-of-two number of ReentrantLocks, w/ a section's lock picked
+ * by the spread hash of its sectionId. Every session's copy of a section maps to the same lock, and nothing is
+ * allocated per section or per request. Sections that land on the same stripe share a lock, which only costs waiting.
+ **/
+@Component
+class SectionLockStripes {
+
+    static final int DEFAULT_STRIPES = 1024;
+
+    private final ReentrantLock[] stripes;
+
+    @Autowired
+    SectionLockStripes(@Value("${enlistment.section-lock.stripes:" + DEFAULT_STRIPES + "}") int stripes) {
+        isTrue(stripes > 0 && stripes <= 1 << 16, "stripes must be from 1 to 65536, was: " + stripes);
+        int size = Integer.highestOneBit(stripes) == stripes ? stripes : Integer.highestOneBit(stripes) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /** The lock shared by every section whose sectionId lands on the same stripe **/
+    ReentrantLock get(String sectionId) {
+        return stripes[indexOf(sectionId)];
+    }
+
+    /**
+     * The locks of the sections, each stripe once, in stripe order: the one order in which a thread may take several
+     * of them, as sorting the sectionIds says nothing about the order of the stripes they land on
+     **/
+    List<ReentrantLock> getAll(Collection<String> sectionIds) {
+        notNull(sectionIds);
+        SortedMap<Integer, ReentrantLock> locks = new TreeMap<>();
+        sectionIds.forEach(sectionId -> locks.put(indexOf(sectionId), get(sectionId)));
+        return new ArrayList<>(locks.values());
+    }
+
+    private int indexOf(String sectionId) {
+        notNull(sectionId);
+        int hash = sectionId.hashCode();
+        // same spreading as HashMap, so ids differing only in their last characters don't crowd the low stripes
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+
+    int size() {
+        return stripes.length;
+    }
+}
@@ -0,0 +1,30 @@
+package com.orangeandbronze.enlistment.domain;
+
+import java.util.*;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/** One page of sections matching a SectionFilter, along with the key to ask for the page after it **/
+public class SectionPage {
+    private final List<SectionSummary> sections;
+    private final String nextAfter;
+
+    public SectionPage(List<SectionSummary> sections, String nextAfter) {
+        notNull(sections);
+        this.sections = List.copyOf(sections);
+        this.nextAfter = nextAfter;
+    }
+
+    public List<SectionSummary> getSections() {
+        return sections;
+    }
+
+    /** section_id to pass as SectionFilter's "after" for the next page, null if this is the last page **/
+    public String getNextAfter() {
+        return nextAfter;
+    }
+
+    public boolean hasNext() {
+        return nextAfter != null;
+    }
+}
@@ -1,9 +1,124 @@
 package com.orangeandbronze.enlistment.domain;
 
+import org.springframework.dao.*;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.*;
 import org.springframework.stereotype.*;
 
+import java.sql.SQLException;
+import java.util.*;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
 @Repository
-public interface SectionRepository extends JpaRepository<Section, String> {
+public interface SectionRepository extends JpaRepository<Section, String>, SectionSearch, SectionSeats {
+
+    /** Postgres exclusion constraints over section.schedule_range; see the Liquibase changelog **/
+    String ROOM_SCHEDULE_CONSTRAINT = "section_room_schedule_excl";
+    String INSTRUCTOR_SCHEDULE_CONSTRAINT = "section_instructor_schedule_excl";
+    String EXCLUSION_VIOLATION_SQL_STATE = "23P01";
+    String PRIMARY_KEY_CONSTRAINT = "section_pkey";
+    String UNIQUE_VIOLATION_SQL_STATE = "23505";
+
+    /** Joins each section's subject, room & instructor instead of selecting them one by one after the sections **/
+    @Override
+    @EntityGraph(attributePaths = {"subject", "room", "instructor"})
+    Optional<Section> findById(String sectionId);
+
+    @Override
+    @EntityGraph(attributePaths = {"subject", "room", "instructor"})
+    List<Section> findAllById(Iterable<String> sectionIds);
+
+    List<Section> findByRoom(Room room);
+
+    List<Section> findByInstructor(Faculty instructor);
+
+    /**
+     * Inserts a new section, in its own transaction. The database rejects it through an index if its schedule overlaps
+     * a section in the same room or w/ the same instructor; the rejection is turned back into a
+     * ScheduleConflictException or FacultyConflictException, like the in-memory checks throw. Only then are the room's
+     * or instructor's sections read, at most a few dozen of them, to name the overlapped section in the message if the
+     * in-memory check finds it. A sectionId taken in the meantime by a concurrent insert is rejected as taken.
+     **/
+    default Section create(Section section) {
+        notNull(section);
+        try {
+            return saveAndFlush(section);
+        } catch (DataIntegrityViolationException e) {
+            if (violatesConstraint(e, EXCLUSION_VIOLATION_SQL_STATE, ROOM_SCHEDULE_CONSTRAINT)) {
+                findByRoom(section.getRoom()).forEach(existing -> existing.checkForScheduleConflict(section));
+                throw new ScheduleConflictException("Section " + section + " overlaps the schedule of another section " +
+                        "in room " + section.getRoom());
+            }
+            if (violatesConstraint(e, EXCLUSION_VIOLATION_SQL_STATE, INSTRUCTOR_SCHEDULE_CONSTRAINT)) {
+                findByInstructor(section.getInstructor()).forEach(existing -> existing.checkScheduleAndInstructor(section));
+                throw new FacultyConflictException("Section " + section + " overlaps the schedule of another section " +
+                        "of instructor " + section.getInstructor());
+            }
+            if (violatesConstraint(e, UNIQUE_VIOLATION_SQL_STATE, PRIMARY_KEY_CONSTRAINT)) {
+                throw sectionIdTaken(section.getSectionId());
+            }
+            throw e;
+        }
+    }
+
+    /** What creating a section w/ a sectionId another section already has is rejected with **/
+    static EnlistmentException sectionIdTaken(String sectionId) {
+        return new EnlistmentException("A section with section id " + sectionId + " already exists.");
+    }
+
+    private static boolean violatesConstraint(Throwable e, String sqlState, String constraint) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException && sqlState.equals(((SQLException) cause).getSQLState())
+                    && String.valueOf(cause.getMessage()).contains(constraint)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Seats taken in section s, including those counted on its seat shards if it has any (see SectionSeatsImpl) **/
+    String SEATS_TAKEN = "(s.number_of_students + CASE WHEN s.seat_shards = 0 THEN 0 ELSE (SELECT SUM(sh.number_of_students) " +
+            "FROM section_seat_shard sh WHERE sh.section_id = s.section_id) END)";
+
+    /** Columns of a SectionSummary, in the order SectionSummary.fromRow expects them **/
+    String SECTION_SUMMARY_SELECT = "SELECT s.section_id, s.subject_subject_id, s.days, s.start_time, s.end_time, " +
+            "s.room_name, r.capacity, " + SEATS_TAKEN + ", f.firstname, f.lastname " +
+            "FROM section s JOIN room r ON r.name = s.room_name " +
+            "LEFT JOIN faculty f ON f.faculty_number = s.instructor_faculty_number ";
+
+    @Query(value = SECTION_SUMMARY_SELECT + "WHERE EXISTS (SELECT 1 FROM student_sections ss " +
+            "WHERE ss.student_student_number = :studentNumber AND ss.sections_section_id = s.section_id) " +
+            "ORDER BY s.section_id", nativeQuery = true)
+    List<Object[]> findEnlistedSectionRows(@Param("studentNumber") int studentNumber);
+
+    /** Sections the student is enlisted in, read straight into SectionSummary without loading any entities **/
+    default List<SectionSummary> findEnlistedSections(int studentNumber) {
+        return SectionSummary.fromRows(findEnlistedSectionRows(studentNumber));
+    }
+
+    @Query(value = SECTION_SUMMARY_SELECT + "ORDER BY s.section_id", nativeQuery = true)
+    List<Object[]> findAllSectionRows();
+
+    /** Every section, for building the SectionCatalog **/
+    default List<SectionSummary> findAllSectionSummaries() {
+        return SectionSummary.fromRows(findAllSectionRows());
+    }
+
+    @Query(value = "SELECT s.section_id, " + SEATS_TAKEN + " FROM section s WHERE s.section_id IN (:sectionIds)",
+            nativeQuery = true)
+    List<Object[]> findSeatsTakenRows(@Param("sectionIds") Collection<String> sectionIds);
+
+    /** Seats taken in each of the given sections that exists, by sectionId **/
+    default Map<String, Integer> findSeatsTaken(Collection<String> sectionIds) {
+        notNull(sectionIds);
+        Map<String, Integer> seatsTaken = new HashMap<>();
+        if (!sectionIds.isEmpty()) {
+            for (Object[] row : findSeatsTakenRows(sectionIds)) {
+                seatsTaken.put((String) row[0], ((Number) row[1]).intValue());
+            }
+        }
+        return seatsTaken;
+    }
 
 }
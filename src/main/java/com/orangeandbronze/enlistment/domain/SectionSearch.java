@@ -0,0 +1,12 @@
+package com.orangeandbronze.enlistment.domain;
+
+/** Filtered, keyset-paginated section listings; mixed into SectionRepository **/
+public interface SectionSearch {
+
+    /** A page of all sections matching the filter **/
+    SectionPage findSections(SectionFilter filter);
+
+    /** A page of the sections matching the filter that the student is not enlisted in **/
+    SectionPage findAvailableSections(SectionFilter filter, int studentNumber);
+
+}
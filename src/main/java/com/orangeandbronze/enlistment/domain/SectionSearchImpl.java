@@ -0,0 +1,78 @@
+package com.orangeandbronze.enlistment.domain;
+
+import javax.persistence.*;
+import java.util.*;
+
+import static com.orangeandbronze.enlistment.domain.SectionRepository.*;
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * Builds one native query per filter, with only the conditions the filter actually uses, so the planner can pick the
+ * index for them (see the section indexes in the Liquibase changelog) & walk it in section_id order, stopping after
+ * pageSize + 1 rows. The extra row only tells whether there is a next page.
+ **/
+class SectionSearchImpl implements SectionSearch {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public SectionPage findSections(SectionFilter filter) {
+        return search(filter, null);
+    }
+
+    @Override
+    public SectionPage findAvailableSections(SectionFilter filter, int studentNumber) {
+        return search(filter, studentNumber);
+    }
+
+    private SectionPage search(SectionFilter filter, Integer notEnlistedStudentNumber) {
+        notNull(filter);
+        StringBuilder sql = new StringBuilder(SECTION_SUMMARY_SELECT).append("WHERE TRUE ");
+        Map<String, Object> params = new HashMap<>();
+        if (filter.getAfter() != null) {
+            sql.append("AND s.section_id > :after ");
+            params.put("after", filter.getAfter());
+        }
+        if (filter.getDays() != null) {
+            sql.append("AND s.days = :days ");
+            params.put("days", filter.getDays().ordinal());
+        }
+        if (filter.getSubjectId() != null) {
+            sql.append("AND s.subject_subject_id = :subjectId ");
+            params.put("subjectId", filter.getSubjectId());
+        }
+        if (filter.getStart() != null) {
+            sql.append("AND s.start_time >= :start ");
+            params.put("start", filter.getStart());
+        }
+        if (filter.getEnd() != null) {
+            sql.append("AND s.end_time <= :end ");
+            params.put("end", filter.getEnd());
+        }
+        if (filter.isHasSeatsLeft()) {
+            sql.append("AND ").append(SEATS_TAKEN).append(" < r.capacity ");
+        }
+        if (filter.getFacultyNumber() != null) {
+            sql.append("AND s.instructor_faculty_number = :facultyNumber ");
+            params.put("facultyNumber", filter.getFacultyNumber());
+        }
+        if (notEnlistedStudentNumber != null) {
+            sql.append("AND NOT EXISTS (SELECT 1 FROM student_sections ss WHERE ss.student_student_number = " +
+                    ":studentNumber AND ss.sections_section_id = s.section_id) ");
+            params.put("studentNumber", notEnlistedStudentNumber);
+        }
+        sql.append("ORDER BY s.section_id LIMIT :limit");
+        params.put("limit", filter.getPageSize() + 1);
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        params.forEach(query::setParameter);
+        @SuppressWarnings("unchecked")
+        List<SectionSummary> sections = SectionSummary.fromRows(query.getResultList());
+        if (sections.size() <= filter.getPageSize()) {
+            return new SectionPage(sections, null);
+        }
+        List<SectionSummary> page = sections.subList(0, filter.getPageSize());
+        return new SectionPage(page, page.get(page.size() - 1).getSectionId());
+    }
+}
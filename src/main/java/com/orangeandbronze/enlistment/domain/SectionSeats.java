@@ -0,0 +1,26 @@
+package com.orangeandbronze.enlistment.domain;
+
+/**
+ * Seat counts of sections, kept in the database so every app instance sees the same ones. Every method updates rows,
+ * so it must be called within a transaction.
+ **/
+public interface SectionSeats {
+
+    /**
+     * Atomically takes one seat in the section, only if its room is not yet at capacity.
+     * Returns 1 if the seat was claimed, 0 if the section is full.
+     **/
+    int claimSeat(String sectionId);
+
+    /**
+     * Atomically gives back one seat previously taken with claimSeat.
+     * Returns 1 if a seat was given back, 0 if the section had no students.
+     **/
+    int releaseSeat(String sectionId);
+
+    /**
+     * Splits the seat count of a hot section across the given number of counter rows, so concurrent enlistments
+     * update different rows. Returns false if the section's seats were already sharded.
+     **/
+    boolean shardSeats(String sectionId, int shards);
+}
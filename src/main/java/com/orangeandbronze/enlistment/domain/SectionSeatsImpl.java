@@ -0,0 +1,152 @@
+package com.orangeandbronze.enlistment.domain;
+
+import javax.persistence.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * A section's seats are counted on its own row until it is sharded. Then the seats already taken stay on the section
+ * row, and the rest of the room's capacity is divided among seat_shards rows of section_seat_shard, each w/ its own
+ * capacity & number_of_students. A seat is taken by a conditional update of one shard picked at random, so enlistments
+ * into a hot section no longer queue on one row. When the picked shard has no seats left, half of the free seats of the
+ * shard w/ the most are moved to it; the shards' capacities always add up to what the room has left, and a CHECK
+ * constraint keeps every shard within its own. A seat taken before sharding is given back to a shard when released.
+ **/
+class SectionSeatsImpl implements SectionSeats {
+
+    static final int MAX_SEAT_SHARDS = 64;
+
+    private static final String CLAIM_SHARD_SEAT = "UPDATE section_seat_shard SET number_of_students = " +
+            "number_of_students + 1 WHERE section_id = :sectionId AND shard = :shard AND number_of_students < capacity";
+    private static final String RELEASE_SHARD_SEAT = "UPDATE section_seat_shard SET number_of_students = " +
+            "number_of_students - 1 WHERE section_id = :sectionId AND shard = :shard AND number_of_students > 0";
+    private static final String TAKE_SHARD_CAPACITY = "UPDATE section_seat_shard SET capacity = capacity - :seats " +
+            "WHERE section_id = :sectionId AND shard = :shard AND capacity - number_of_students >= :seats";
+    private static final String GIVE_SHARD_CAPACITY = "UPDATE section_seat_shard SET capacity = capacity + :seats " +
+            "WHERE section_id = :sectionId AND shard = :shard";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int claimSeat(String sectionId) {
+        notBlank(sectionId);
+        int claimed = entityManager.createNativeQuery("UPDATE section SET number_of_students = number_of_students + 1 " +
+                "WHERE section_id = :sectionId AND seat_shards = 0 " +
+                "AND number_of_students < (SELECT room.capacity FROM room WHERE room.name = section.room_name)")
+                .setParameter("sectionId", sectionId).executeUpdate();
+        if (claimed == 1) {
+            return 1;
+        }
+        int shards = seatShards(sectionId);
+        return shards == 0 ? 0 : claimShardSeat(sectionId, ThreadLocalRandom.current().nextInt(shards));
+    }
+
+    private int claimShardSeat(String sectionId, int shard) {
+        while (updateShard(CLAIM_SHARD_SEAT, sectionId, shard) == 0) {
+            @SuppressWarnings("unchecked")
+            List<Object[]> richest = entityManager.createNativeQuery("SELECT shard, capacity - number_of_students " +
+                    "FROM section_seat_shard WHERE section_id = :sectionId AND number_of_students < capacity " +
+                    "ORDER BY 2 DESC LIMIT 1").setParameter("sectionId", sectionId).getResultList();
+            if (richest.isEmpty()) {
+                return 0; // no shard has a seat left
+            }
+            int from = ((Number) richest.get(0)[0]).intValue();
+            int free = ((Number) richest.get(0)[1]).intValue();
+            if (from != shard) {
+                moveCapacity(sectionId, from, shard, (free + 1) / 2);
+            }
+            // retry, whether or not the seats were moved: another enlistment may have taken or given back seats
+        }
+        return 1;
+    }
+
+    /** Moves seats of capacity between shards, locking the two shard rows in shard order so movers can't deadlock **/
+    private void moveCapacity(String sectionId, int from, int to, int seats) {
+        if (from < to) {
+            if (updateShard(TAKE_SHARD_CAPACITY, sectionId, from, seats) == 1) {
+                updateShard(GIVE_SHARD_CAPACITY, sectionId, to, seats);
+            }
+        } else {
+            updateShard(GIVE_SHARD_CAPACITY, sectionId, to, seats);
+            if (updateShard(TAKE_SHARD_CAPACITY, sectionId, from, seats) == 0) {
+                // the seats were taken from the other shard meanwhile; the row of this one is still ours to undo
+                updateShard(GIVE_SHARD_CAPACITY, sectionId, to, -seats);
+            }
+        }
+    }
+
+    @Override
+    public int releaseSeat(String sectionId) {
+        notBlank(sectionId);
+        int released = entityManager.createNativeQuery("UPDATE section SET number_of_students = number_of_students - 1 " +
+                "WHERE section_id = :sectionId AND seat_shards = 0 AND number_of_students > 0")
+                .setParameter("sectionId", sectionId).executeUpdate();
+        if (released == 1) {
+            return 1;
+        }
+        int shards = seatShards(sectionId);
+        if (shards == 0) {
+            return 0;
+        }
+        int start = ThreadLocalRandom.current().nextInt(shards);
+        for (int i = 0; i < shards; i++) {
+            if (updateShard(RELEASE_SHARD_SEAT, sectionId, (start + i) % shards) == 1) {
+                return 1;
+            }
+        }
+        // the seat was taken before the section was sharded; it goes to a shard, as seats are only claimed on shards now
+        int releasedFromRow = entityManager.createNativeQuery("UPDATE section SET number_of_students = " +
+                "number_of_students - 1 WHERE section_id = :sectionId AND number_of_students > 0")
+                .setParameter("sectionId", sectionId).executeUpdate();
+        if (releasedFromRow == 1) {
+            updateShard(GIVE_SHARD_CAPACITY, sectionId, start, 1);
+        }
+        return releasedFromRow;
+    }
+
+    @Override
+    public boolean shardSeats(String sectionId, int shards) {
+        notBlank(sectionId);
+        inclusiveBetween(2, MAX_SEAT_SHARDS, shards, "shards must be from 2 to " + MAX_SEAT_SHARDS + ", was: " + shards);
+        // the section row stays locked until commit, so no seat is claimed on it while its free seats are divided
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createNativeQuery("SELECT s.seat_shards, r.capacity - s.number_of_students " +
+                "FROM section s JOIN room r ON r.name = s.room_name WHERE s.section_id = :sectionId FOR UPDATE OF s")
+                .setParameter("sectionId", sectionId).getResultList();
+        if (rows.isEmpty()) {
+            throw new NoSuchElementException("no section found with sectionId " + sectionId);
+        }
+        if (((Number) rows.get(0)[0]).intValue() != 0) {
+            return false;
+        }
+        int free = Math.max(0, ((Number) rows.get(0)[1]).intValue());
+        for (int shard = 0; shard < shards; shard++) {
+            entityManager.createNativeQuery("INSERT INTO section_seat_shard (section_id, shard, capacity, " +
+                    "number_of_students) VALUES (:sectionId, :shard, :capacity, 0)")
+                    .setParameter("sectionId", sectionId).setParameter("shard", shard)
+                    .setParameter("capacity", free / shards + (shard < free % shards ? 1 : 0)).executeUpdate();
+        }
+        entityManager.createNativeQuery("UPDATE section SET seat_shards = :shards WHERE section_id = :sectionId")
+                .setParameter("shards", shards).setParameter("sectionId", sectionId).executeUpdate();
+        return true;
+    }
+
+    private int seatShards(String sectionId) {
+        List<?> shards = entityManager.createNativeQuery("SELECT seat_shards FROM section WHERE section_id = :sectionId")
+                .setParameter("sectionId", sectionId).getResultList();
+        return shards.isEmpty() ? 0 : ((Number) shards.get(0)).intValue();
+    }
+
+    private int updateShard(String sql, String sectionId, int shard) {
+        return entityManager.createNativeQuery(sql).setParameter("sectionId", sectionId).setParameter("shard", shard)
+                .executeUpdate();
+    }
+
+    private int updateShard(String sql, String sectionId, int shard, int seats) {
+        return entityManager.createNativeQuery(sql).setParameter("sectionId", sectionId).setParameter("shard", shard)
+                .setParameter("seats", seats).executeUpdate();
+    }
+}
@@ -0,0 +1,88 @@
+package com.orangeandbronze.enlistment.domain;
+
+import java.sql.*;
+import java.util.*;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/** Immutable, read-only view of a Section with everything the section listings render, so views need no entities **/
+public class SectionSummary {
+    private final String sectionId;
+    private final String subject;
+    private final Schedule schedule;
+    private final String room;
+    private final int capacity;
+    private final int numberOfStudents;
+    private final String instructor;
+
+    public SectionSummary(String sectionId, String subject, Schedule schedule, String room, int capacity,
+                          int numberOfStudents, String instructor) {
+        notBlank(sectionId);
+        this.sectionId = sectionId;
+        this.subject = subject;
+        this.schedule = schedule;
+        this.room = room;
+        this.capacity = capacity;
+        this.numberOfStudents = numberOfStudents;
+        this.instructor = instructor;
+    }
+
+    /** Row of SectionRepository.SECTION_SUMMARY_SELECT **/
+    static SectionSummary fromRow(Object[] row) {
+        Schedule schedule = row[2] == null ? null : new Schedule(Days.values()[((Number) row[2]).intValue()],
+                new Period(((Time) row[3]).toLocalTime(), ((Time) row[4]).toLocalTime()));
+        String instructor = row[8] == null ? null : row[8] + " " + row[9];
+        return new SectionSummary((String) row[0], (String) row[1], schedule, (String) row[5],
+                ((Number) row[6]).intValue(), ((Number) row[7]).intValue(), instructor);
+    }
+
+    static List<SectionSummary> fromRows(List<Object[]> rows) {
+        List<SectionSummary> summaries = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            summaries.add(fromRow(row));
+        }
+        return summaries;
+    }
+
+    /** The same section w/ another seat count **/
+    SectionSummary withNumberOfStudents(int numberOfStudents) {
+        return new SectionSummary(sectionId, subject, schedule, room, capacity, numberOfStudents, instructor);
+    }
+
+    public String getSectionId() {
+        return sectionId;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public Schedule getSchedule() {
+        return schedule;
+    }
+
+    public String getRoom() {
+        return room;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getNumberOfStudents() {
+        return numberOfStudents;
+    }
+
+    public int getSeatsLeft() {
+        return Math.max(0, capacity - numberOfStudents);
+    }
+
+    public String getInstructor() {
+        return instructor;
+    }
+
+    @Override
+    public String toString() {
+        return sectionId;
+    }
+}
@@ -0,0 +1,33 @@
+package com.orangeandbronze.enlistment.domain;
+
+import io.micrometer.core.instrument.*;
+import org.springframework.beans.factory.annotation.*;
+import org.springframework.boot.autoconfigure.condition.*;
+import org.springframework.stereotype.*;
+
+import java.util.*;
+import java.util.concurrent.locks.*;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/** In-JVM section locks from the SectionLockStripes. Requests on other app instances are not excluded. **/
+@Component
+@ConditionalOnProperty(name = "enlistment.section-lock", havingValue = "striped", matchIfMissing = true)
+class StripedSectionLockProvider extends TimedSectionLockProvider {
+
+    private final SectionLockStripes stripes;
+
+    @Autowired
+    StripedSectionLockProvider(MeterRegistry meterRegistry, HotSections hotSections, SectionLockStripes stripes) {
+        super(meterRegistry, hotSections, "striped");
+        notNull(stripes);
+        this.stripes = stripes;
+    }
+
+    @Override
+    Runnable acquireAll(Collection<String> sectionIds) {
+        List<ReentrantLock> locks = stripes.getAll(sectionIds);
+        locks.forEach(ReentrantLock::lock);
+        return () -> locks.forEach(ReentrantLock::unlock);
+    }
+}
@@ -2,6 +2,8 @@ package com.orangeandbronze.enlistment.domain;
 
 import javax.persistence.*;
 import java.util.*;
+import java.util.function.*;
+
 import static org.apache.commons.lang3.Validate.*;
 @Entity
 public class Student {
@@ -10,10 +12,20 @@ public class Student {
     private final String firstname;
     private final String lastname;
     @ManyToMany
+    @JoinTable(indexes = @Index(name = "idx_student_sections_student", columnList = "student_student_number, sections_section_id"))
     private final Collection<Section> sections = new HashSet<>();
     @ManyToMany
     private final Collection<Subject> subjectsTaken = new HashSet<>();
 
+    // union of the schedule slot masks of all enlisted sections, built on first use then kept up to date by enlist & cancel
+    @Transient
+    private long scheduleOccupancy;
+    @Transient
+    private boolean scheduleOccupancyLoaded;
+    // subjectsTaken as a bitset over the PrerequisiteGraph, built on first use
+    @Transient
+    private PrerequisiteGraph.SubjectSet subjectsTakenSet;
+
     Student(int studentNumber, String firstname, String lastname, Collection<Section> sections, Collection<Subject> subjectsTaken) {
         isTrue (studentNumber >= 0,
                 "studentNumber can't be negative, was: " + studentNumber);
@@ -38,33 +50,186 @@ public class Student {
         this(studentNumber, firstname, lastname, sections, Collections.emptyList());
     }
 
-    public void enlist(Section newSection) {
+    // also called after a refresh, which reloads sections & subjectsTaken
+    @PostLoad
+    private void clearCaches() {
+        scheduleOccupancyLoaded = false;
+        subjectsTakenSet = null;
+    }
+
+    /** Returns true if the student was newly enlisted in the section, false if already enlisted **/
+    public boolean enlist(Section newSection) {
+        return enlist(newSection, () -> newSection.validatePrereqs(subjectsTaken));
+    }
+
+    /** Same as enlist(Section), but checks prerequisites against the compiled bitsets of the PrerequisiteGraph **/
+    public boolean enlist(Section newSection, PrerequisiteGraph prerequisiteGraph) {
+        notNull(prerequisiteGraph);
+        return enlist(newSection, () -> newSection.validatePrereqs(prerequisiteGraph, getSubjectsTakenSet(prerequisiteGraph)));
+    }
+
+    private boolean enlist(Section newSection, Supplier<Violation> prereqCheck) {
         notNull(newSection,"section can't be null");
         if (sections.contains(newSection)) {
-            return; // do nothing if it's already present
+            return false; // do nothing if it's already present
         }
-        sections.forEach(currSection -> checkForConflict(currSection, newSection) );
-        newSection.checkPrereqs(subjectsTaken);
-        newSection.lock(); // one thread at a time... this only works if single app instance
-        try {
-            newSection.incrementNumberOfStudents();
-            sections.add(newSection);
-        } finally {
-            newSection.unlock(); // release lock
+        validateEnlist(newSection, prereqCheck).throwIfViolated();
+        // concurrent enlistments into the same section are serialized by the caller's SectionLockProvider
+        newSection.incrementNumberOfStudents();
+        sections.add(newSection);
+        scheduleOccupancy |= newSection.getScheduleSlotMask();
+        return true;
+    }
+
+    /**
+     * The first rule enlist(Section, PrerequisiteGraph) would find broken, other than the section's seats, w/o enlisting
+     * or throwing; Violation.NONE if there's none
+     **/
+    public Violation validateEnlist(Section newSection, PrerequisiteGraph prerequisiteGraph) {
+        notNull(newSection,"section can't be null");
+        notNull(prerequisiteGraph);
+        return validateEnlist(newSection, () -> newSection.validatePrereqs(prerequisiteGraph, getSubjectsTakenSet(prerequisiteGraph)));
+    }
+
+    private Violation validateEnlist(Section newSection, Supplier<Violation> prereqCheck) {
+        if ((getScheduleOccupancy() & newSection.getScheduleSlotMask()) != 0) {
+            // only walk the sections to find the clashing one when there's a conflict, for the violation
+            Violation conflict = firstViolation(sections, currSection -> currSection.validateScheduleConflict(newSection));
+            if (conflict.isViolated()) {
+                return conflict;
+            }
         }
+        Violation sameSubject = firstViolation(sections, currSection -> currSection.validateSameSubject(newSection));
+        return sameSubject.isViolated() ? sameSubject : prereqCheck.get();
     }
 
-    private void checkForConflict(Section currSection, Section newSection) {
-        currSection.checkForScheduleConflict(newSection);
-        currSection.checkSameSubject(newSection);
+    private static Violation firstViolation(Collection<Section> sections, Function<Section, Violation> rule) {
+        for (Section section : sections) {
+            Violation violation = rule.apply(section);
+            if (violation.isViolated()) {
+                return violation;
+            }
+        }
+        return Violation.NONE;
     }
 
-    public void cancel(Section section) {
+    /**
+     * Enlists the student in all of the new sections or in none of them, checking each against the enlisted sections
+     * & the other new ones in a single pass. Returns each rejected section w/ why it was rejected, empty if the student
+     * was enlisted in all of them. Sections the student is already enlisted in are skipped.
+     **/
+    public Map<Section, EnlistmentException> enlistAll(Collection<Section> newSections, PrerequisiteGraph prerequisiteGraph) {
+        notNull(newSections);
+        notNull(prerequisiteGraph);
+        Map<Section, EnlistmentException> rejections = new LinkedHashMap<>();
+        List<Section> accepted = new ArrayList<>();
+        long occupancy = getScheduleOccupancy();
+        for (Section newSection : new LinkedHashSet<>(newSections)) {
+            notNull(newSection, "section can't be null");
+            if (sections.contains(newSection)) {
+                continue;
+            }
+            final long newSlots = newSection.getScheduleSlotMask();
+            Violation violation = Violation.NONE;
+            if ((occupancy & newSlots) != 0) {
+                violation = firstViolation(sections, currSection -> currSection.validateScheduleConflict(newSection));
+                if (!violation.isViolated()) {
+                    violation = firstViolation(accepted, currSection -> currSection.validateScheduleConflict(newSection));
+                }
+            }
+            if (!violation.isViolated()) {
+                violation = firstViolation(sections, currSection -> currSection.validateSameSubject(newSection));
+            }
+            if (!violation.isViolated()) {
+                violation = firstViolation(accepted, currSection -> currSection.validateSameSubject(newSection));
+            }
+            if (!violation.isViolated()) {
+                violation = newSection.validatePrereqs(prerequisiteGraph, getSubjectsTakenSet(prerequisiteGraph));
+            }
+            if (!violation.isViolated()) {
+                violation = newSection.validateNotFull();
+            }
+            if (violation.isViolated()) {
+                rejections.put(newSection, violation.toException());
+            } else {
+                accepted.add(newSection);
+                occupancy |= newSlots;
+            }
+        }
+        if (rejections.isEmpty()) {
+            for (Section newSection : accepted) {
+                newSection.incrementNumberOfStudents();
+                sections.add(newSection);
+            }
+            scheduleOccupancy = occupancy;
+        }
+        return rejections;
+    }
+
+    /**
+     * Replaces the enlisted old section w/ the new one, checking the new section against the student's schedule as if
+     * the old one were already canceled, so it may share the old one's subject or schedule. Returns false if they're the
+     * same section.
+     **/
+    public boolean swap(Section oldSection, Section newSection, PrerequisiteGraph prerequisiteGraph) {
+        notNull(oldSection);
+        notNull(newSection, "section can't be null");
+        notNull(prerequisiteGraph);
+        if (!sections.contains(oldSection)) {
+            throw new EnlistmentException("Cannot swap out of section " + oldSection + ", student is not enlisted in it");
+        }
+        if (oldSection.equals(newSection)) {
+            return false;
+        }
+        if (sections.contains(newSection)) {
+            throw new EnlistmentException("Cannot swap into section " + newSection + ", student is already enlisted in it");
+        }
+        final long newSlots = newSection.getScheduleSlotMask();
+        final long otherSlots = getScheduleOccupancy() & ~oldSection.getScheduleSlotMask();
+        if ((otherSlots & newSlots) != 0) {
+            sections.stream().filter(currSection -> !currSection.equals(oldSection))
+                    .forEach(currSection -> currSection.checkForScheduleConflict(newSection));
+        }
+        sections.stream().filter(currSection -> !currSection.equals(oldSection))
+                .forEach(currSection -> currSection.checkSameSubject(newSection));
+        newSection.checkPrereqs(prerequisiteGraph, getSubjectsTakenSet(prerequisiteGraph));
+        newSection.incrementNumberOfStudents();
+        oldSection.decrementNumberOfStudents();
+        sections.remove(oldSection);
+        sections.add(newSection);
+        scheduleOccupancy = otherSlots | newSlots;
+        return true;
+    }
+
+    /** Returns true if the student was enlisted in the section and now isn't, false if there was nothing to cancel **/
+    public boolean cancel(Section section) {
         notNull(section);
-        if (sections.contains(section)) {
-            sections.remove(section);
-            section.decrementNumberOfStudents();
+        if (!sections.remove(section)) {
+            return false;
         }
+        section.decrementNumberOfStudents();
+        // enlisted sections never overlap, so clearing this section's slots leaves the others' intact
+        scheduleOccupancy &= ~section.getScheduleSlotMask();
+        return true;
+    }
+
+    private long getScheduleOccupancy() {
+        if (!scheduleOccupancyLoaded) {
+            long occupancy = 0;
+            for (Section section : sections) {
+                occupancy |= section.getScheduleSlotMask();
+            }
+            scheduleOccupancy = occupancy;
+            scheduleOccupancyLoaded = true;
+        }
+        return scheduleOccupancy;
+    }
+
+    private PrerequisiteGraph.SubjectSet getSubjectsTakenSet(PrerequisiteGraph prerequisiteGraph) {
+        if (subjectsTakenSet == null) {
+            subjectsTakenSet = prerequisiteGraph.newSubjectSet(subjectsTaken);
+        }
+        return subjectsTakenSet;
     }
 
     public int getStudentNumber() {
@@ -79,6 +244,10 @@ public class Student {
         return lastname;
     }
 
+    boolean isEnlistedIn(Section section) {
+        return sections.contains(section);
+    }
+
     public Collection<Section> getSections() {
         return new ArrayList<>(sections);
     }
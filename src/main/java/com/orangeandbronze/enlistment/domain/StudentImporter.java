@@ -0,0 +1,109 @@
+package com.orangeandbronze.enlistment.domain;
+
+import org.springframework.beans.factory.annotation.*;
+import org.springframework.jdbc.core.*;
+import org.springframework.stereotype.*;
+
+import javax.transaction.*;
+import java.io.*;
+import java.util.*;
+import java.util.function.*;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * Bulk import of the registrar's roster & transcript feed from CSV, one student per line:
+ * studentNumber,firstname,lastname,subjectsTaken, where subjectsTaken is a ';'-separated list of subjectIds
+ * (e.g. "1001,Meredith,Grey,Math1;Math2"). A first line starting w/ "studentNumber" is skipped as a header.
+ * <p>
+ * Each line is checked w/ the same rules as the Student constructor, against the subjects & existing student numbers
+ * read once at the start. Accepted students are written BATCH_SIZE at a time through batched JDBC inserts, each batch
+ * sorted by student number, students first then their subjects taken. Only the batch & the set of student numbers are
+ * kept in memory, however long the feed. All or none of the accepted students are written.
+ **/
+@Component
+public class StudentImporter {
+
+    static final String HEADER = "studentNumber,firstname,lastname,subjectsTaken";
+    private static final String INSERT_STUDENT = "INSERT INTO student (student_number, firstname, lastname) VALUES (?, ?, ?)";
+    private static final String INSERT_SUBJECT_TAKEN = "INSERT INTO student_subjects_taken " +
+            "(student_student_number, subjects_taken_subject_id) VALUES (?, ?)";
+
+    private final SubjectRepository subjectRepo;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public StudentImporter(SubjectRepository subjectRepo, JdbcTemplate jdbcTemplate) {
+        notNull(subjectRepo);
+        notNull(jdbcTemplate);
+        this.subjectRepo = subjectRepo;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional
+    public ImportReport importStudents(Reader csv) {
+        return importStudents(csv, report -> {});
+    }
+
+    /** Same as importStudents(Reader), calling progress w/ the report so far after each batch is written **/
+    @Transactional
+    public ImportReport importStudents(Reader csv, Consumer<ImportReport> progress) {
+        return new StudentImport().importLines(csv, progress);
+    }
+
+    /** State of one import: the subjects, the student numbers taken, and the students not yet written **/
+    private class StudentImport extends CsvImport {
+        private final Map<String, Subject> subjects = byId(subjectRepo.findAll(), Subject::toString);
+        private final Set<Integer> studentNumbers = new HashSet<>(
+                jdbcTemplate.queryForList("SELECT student_number FROM student", Integer.class));
+        private final SortedMap<Integer, String[]> students = new TreeMap<>();
+
+        private StudentImport() {
+            super(HEADER);
+        }
+
+        @Override
+        void add(String[] fields) {
+            Integer studentNumber = parseInt(fields[0]);
+            if (studentNumber == null) {
+                throw new EnlistmentException("studentNumber must be a number, was: " + fields[0]);
+            }
+            if (studentNumbers.contains(studentNumber)) {
+                throw new EnlistmentException("A student with student number " + studentNumber + " already exists.");
+            }
+            Collection<Subject> subjectsTaken = new ArrayList<>();
+            for (String subjectId : fields[3].split(";")) {
+                if (!subjectId.isBlank()) {
+                    subjectsTaken.add(lookup(subjects, subjectId.trim(), "No subject found with subjectId " + subjectId.trim()));
+                }
+            }
+            new Student(studentNumber, fields[1], fields[2], Collections.emptyList(), subjectsTaken); // same validations
+
+            studentNumbers.add(studentNumber);
+            students.put(studentNumber, fields);
+        }
+
+        @Override
+        int pending() {
+            return students.size();
+        }
+
+        @Override
+        int flush() {
+            List<Object[]> studentRows = new ArrayList<>(students.size());
+            List<Object[]> subjectTakenRows = new ArrayList<>();
+            students.forEach((studentNumber, fields) -> {
+                studentRows.add(new Object[]{studentNumber, fields[1], fields[2]});
+                Arrays.stream(fields[3].split(";")).map(String::trim).filter(subjectId -> !subjectId.isEmpty())
+                        .distinct().forEach(subjectId -> subjectTakenRows.add(new Object[]{studentNumber, subjectId}));
+            });
+            jdbcTemplate.batchUpdate(INSERT_STUDENT, studentRows);
+            if (!subjectTakenRows.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SUBJECT_TAKEN, subjectTakenRows);
+            }
+            int written = students.size();
+            students.clear();
+            return written;
+        }
+    }
+}
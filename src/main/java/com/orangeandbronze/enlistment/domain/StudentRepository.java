@@ -1,10 +1,33 @@
 package com.orangeandbronze.enlistment.domain;
 
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.*;
 import org.springframework.stereotype.*;
 
+import java.util.*;
+
 @Repository
 public interface StudentRepository extends JpaRepository<Student, Integer> {
 
+    /** Fetch joins of the sections w/ their subject, room & instructor, which are otherwise selected section by section **/
+    String FETCH_SECTIONS = "LEFT JOIN FETCH s.sections sec LEFT JOIN FETCH sec.subject LEFT JOIN FETCH sec.room " +
+            "LEFT JOIN FETCH sec.instructor ";
+
+    /** The student w/ their sections, loaded in one query **/
+    @Query("SELECT s FROM Student s " + FETCH_SECTIONS + "WHERE s.studentNumber = :studentNumber")
+    Optional<Student> findWithSectionsByStudentNumber(@Param("studentNumber") int studentNumber);
+
+    /** The students w/ their sections, loaded in one query **/
+    @Query("SELECT DISTINCT s FROM Student s " + FETCH_SECTIONS + "WHERE s.studentNumber IN :studentNumbers")
+    List<Student> findAllWithSections(@Param("studentNumbers") Collection<Integer> studentNumbers);
+
+    /** The students w/ their subjects taken, loaded in one query; a bag can't be fetched together w/ the sections **/
+    @Query("SELECT DISTINCT s FROM Student s LEFT JOIN FETCH s.subjectsTaken WHERE s.studentNumber IN :studentNumbers")
+    List<Student> findAllWithSubjectsTaken(@Param("studentNumbers") Collection<Integer> studentNumbers);
+
+    /** The subjectIds of the subjects the student has taken, w/o loading the student **/
+    @Query(value = "SELECT subjects_taken_subject_id FROM student_subjects_taken WHERE student_student_number = :studentNumber",
+            nativeQuery = true)
+    List<String> findSubjectIdsTaken(@Param("studentNumber") int studentNumber);
 
 }
@@ -1,15 +1,21 @@
 package com.orangeandbronze.enlistment.domain;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 import java.util.*;
 
 import static org.apache.commons.lang3.StringUtils.isAlphanumeric;
 import static org.apache.commons.lang3.Validate.*;
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
 public class Subject {
     @Id
     private final String subjectId;
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
     private final Collection<Subject> prerequisites = new HashSet<>();
 
     Subject(String subjectId, Collection<Subject> prerequisites) {
@@ -26,14 +32,21 @@ public class Subject {
     }
 
     void checkPrereqs(Collection<Subject> subjectsTaken) {
+        validatePrereqs(subjectsTaken).throwIfViolated();
+    }
+
+    Violation validatePrereqs(Collection<Subject> subjectsTaken) {
         notNull(subjectsTaken);
-        Collection<Subject> copySubjectsTaken = new HashSet<>(subjectsTaken); // sets are quicker to search through
-        if (!copySubjectsTaken.containsAll(prerequisites)) {
-            Collection<Subject> copyOfPrereqs = new HashSet<>(prerequisites);
-            copyOfPrereqs.removeAll(copySubjectsTaken);
-            throw new PrereqMissingException(
-                    "missing prereqs: " + copyOfPrereqs);
+        if (subjectsTaken.containsAll(prerequisites)) {
+            return Violation.NONE;
         }
+        Collection<Subject> missingPrereqs = new HashSet<>(prerequisites);
+        missingPrereqs.removeAll(subjectsTaken);
+        return Violation.of(Violation.Rule.MISSING_PREREQUISITES, missingPrereqs);
+    }
+
+    Collection<Subject> getPrerequisites() {
+        return prerequisites;
     }
 
     @Override
@@ -3,8 +3,19 @@ package com.orangeandbronze.enlistment.domain;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.*;
 
+import javax.persistence.QueryHint;
+import java.util.*;
+
 @Repository
 public interface SubjectRepository extends JpaRepository<Subject, String> {
 
+    /** Served from the query cache; see ReferenceDataCache **/
+    @Override
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    List<Subject> findAll();
+
+    /** Not cached, as it is what PrerequisiteGraph reloads to pick up subjects added since it was built **/
+    @Query("SELECT DISTINCT s FROM Subject s LEFT JOIN FETCH s.prerequisites")
+    List<Subject> findAllWithPrerequisites();
 
 }
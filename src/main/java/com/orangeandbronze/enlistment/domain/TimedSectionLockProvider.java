@@ -0,0 +1,68 @@
+package com.orangeandbronze.enlistment.domain;
+
+import io.micrometer.core.instrument.*;
+import org.springframework.transaction.support.*;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * Ties a lock to the current transaction & measures it: the time spent waiting for the lock, and the time it is held
+ * until the transaction completes, as the "enlistment.section.lock.wait" & "enlistment.section.lock.hold" timers
+ * tagged w/ the provider's name. Waits are also reported to HotSections, which shards the seats of sections whose
+ * lock is contended.
+ **/
+abstract class TimedSectionLockProvider implements SectionLockProvider {
+
+    private final Timer waitTimer;
+    private final Timer holdTimer;
+    private final HotSections hotSections;
+
+    TimedSectionLockProvider(MeterRegistry meterRegistry, HotSections hotSections, String provider) {
+        notNull(meterRegistry);
+        notNull(hotSections);
+        notBlank(provider);
+        this.hotSections = hotSections;
+        this.waitTimer = Timer.builder("enlistment.section.lock.wait").tag("provider", provider)
+                .description("Time spent waiting for a section lock").register(meterRegistry);
+        this.holdTimer = Timer.builder("enlistment.section.lock.hold").tag("provider", provider)
+                .description("Time a section lock is held, until its transaction completes").register(meterRegistry);
+    }
+
+    @Override
+    public final void lock(String sectionId) {
+        notBlank(sectionId);
+        lockAll(List.of(sectionId));
+    }
+
+    @Override
+    public final void lockAll(Collection<String> sectionIds) {
+        noNullElements(sectionIds);
+        isTrue(TransactionSynchronizationManager.isSynchronizationActive(),
+                "a section lock is held until its transaction completes, but there is no transaction");
+        if (sectionIds.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        Runnable release = acquireAll(sectionIds);
+        long acquired = System.nanoTime();
+        waitTimer.record(acquired - start, TimeUnit.NANOSECONDS);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                release.run();
+                holdTimer.record(System.nanoTime() - acquired, TimeUnit.NANOSECONDS);
+            }
+        });
+        sectionIds.forEach(sectionId -> hotSections.lockWaited(sectionId, acquired - start));
+    }
+
+    /**
+     * Blocks until the sections' locks are held by the current thread, taken in the provider's lock order, returning
+     * what releases them
+     **/
+    abstract Runnable acquireAll(Collection<String> sectionIds);
+}
@@ -0,0 +1,86 @@
+package com.orangeandbronze.enlistment.domain;
+
+import java.util.*;
+import java.util.function.*;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * Outcome of checking an enlistment rule w/o throwing: NONE if the rule holds, else the Rule broken & the periods,
+ * sections, subjects or counts that break it. The message is only built when getMessage() is called, and
+ * throwIfViolated() turns a violation into the same EnlistmentException the check* methods have always thrown.
+ **/
+public final class Violation {
+
+    /** Shared by every rule check that passes **/
+    public static final Violation NONE = new Violation(null);
+
+    public enum Rule {
+        SCHEDULE_CONFLICT(operands -> "Period overlap between this: " + operands[0] + " & other: " + operands[1],
+                ScheduleConflictException::new),
+        SAME_SUBJECT(operands -> "This section " + operands[0] + " & other section " + operands[1] +
+                " have same subject of " + operands[2], SameSubjectException::new),
+        MISSING_PREREQUISITES(operands -> "missing prereqs: " + operands[0], PrereqMissingException::new),
+        AT_CAPACITY(operands -> "at or over capacity of " + operands[0] + "  at occupancy of " + operands[1],
+                CapacityException::new),
+        INSTRUCTOR_CONFLICT(operands -> "Section " + operands[0] + " & new section " + operands[1] +
+                " cannot have the same instructor #" + operands[2] + " as they have overlapping schedules",
+                FacultyConflictException::new);
+
+        private final Function<Object[], String> message;
+        private final Function<Violation, EnlistmentException> exception;
+
+        Rule(Function<Object[], String> message, Function<Violation, EnlistmentException> exception) {
+            this.message = message;
+            this.exception = exception;
+        }
+    }
+
+    private final Rule rule;
+    private final Object[] operands;
+
+    private Violation(Rule rule, Object... operands) {
+        this.rule = rule;
+        this.operands = operands;
+    }
+
+    static Violation of(Rule rule, Object... operands) {
+        notNull(rule);
+        return new Violation(rule, operands);
+    }
+
+    public boolean isViolated() {
+        return rule != null;
+    }
+
+    /** The rule broken, null if none **/
+    public Rule getRule() {
+        return rule;
+    }
+
+    /** What breaks the rule, e.g. the two overlapping periods, or the missing prerequisites; empty if none **/
+    public List<Object> getOperands() {
+        return List.of(operands);
+    }
+
+    public String getMessage() {
+        return rule == null ? "" : rule.message.apply(operands);
+    }
+
+    public void throwIfViolated() {
+        if (rule != null) {
+            throw toException();
+        }
+    }
+
+    /** The EnlistmentException subclass the check* methods throw for this violation, w/o throwing it **/
+    EnlistmentException toException() {
+        validState(rule != null, "no violation to turn into an exception");
+        return rule.exception.apply(this);
+    }
+
+    @Override
+    public String toString() {
+        return rule == null ? "no violation" : rule + ": " + getMessage();
+    }
+}
@@ -0,0 +1,67 @@
+package com.orangeandbronze.enlistment.domain;
+
+import org.springframework.beans.factory.annotation.*;
+import org.springframework.jdbc.core.*;
+import org.springframework.stereotype.*;
+
+import javax.transaction.*;
+import java.util.*;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * Students' ranked wish lists of sections for pre-enlistment, kept in the wish_list_entry table by plain JDBC. Nothing
+ * about them is checked against the student's schedule or the sections' seats until the SeatAllocator runs.
+ **/
+@Component
+public class WishLists {
+
+    static final int MAX_WISHES = 20;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public WishLists(JdbcTemplate jdbcTemplate) {
+        notNull(jdbcTemplate);
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Replaces the student's wish list w/ the sections, most wanted first; blanks & repeats are dropped **/
+    @Transactional
+    public void submit(int studentNumber, List<String> rankedSectionIds) {
+        notNull(rankedSectionIds);
+        Set<String> wishes = new LinkedHashSet<>();
+        rankedSectionIds.stream().filter(Objects::nonNull).map(String::trim).filter(id -> !id.isEmpty()).forEach(wishes::add);
+        if (wishes.size() > MAX_WISHES) {
+            throw new EnlistmentException("A wish list can have at most " + MAX_WISHES + " sections, had " + wishes.size());
+        }
+        Set<String> found = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT section_id FROM section WHERE section_id = ANY (?)", String.class, (Object) wishes.toArray(new String[0])));
+        for (String sectionId : wishes) {
+            if (!found.contains(sectionId)) {
+                throw new EnlistmentException("No section found with sectionId " + sectionId);
+            }
+        }
+        jdbcTemplate.update("DELETE FROM wish_list_entry WHERE student_number = ?", studentNumber);
+        List<Object[]> rows = new ArrayList<>(wishes.size());
+        for (String sectionId : wishes) {
+            rows.add(new Object[]{studentNumber, sectionId, rows.size() + 1});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO wish_list_entry (student_number, section_id, preference) VALUES (?, ?, ?)", rows);
+    }
+
+    /** The student's wish list, most wanted first **/
+    public List<String> find(int studentNumber) {
+        return jdbcTemplate.queryForList("SELECT section_id FROM wish_list_entry WHERE student_number = ? " +
+                "ORDER BY preference", String.class, studentNumber);
+    }
+
+    /** Every student's wish list by studentNumber, each most wanted first **/
+    Map<Integer, List<String>> findAll() {
+        Map<Integer, List<String>> wishLists = new HashMap<>();
+        jdbcTemplate.query("SELECT student_number, section_id FROM wish_list_entry ORDER BY student_number, preference",
+                (RowCallbackHandler) rs -> wishLists.computeIfAbsent(rs.getInt("student_number"), number -> new ArrayList<>())
+                        .add(rs.getString("section_id")));
+        return wishLists;
+    }
+}
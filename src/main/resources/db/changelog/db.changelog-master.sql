@@ -80,3 +80,56 @@ ALTER TABLE public.faculty ADD firstname VARCHAR(255);
 -- changeset jadie:1644126665701-2
 ALTER TABLE public.faculty ADD lastname VARCHAR(255);
 
+
+-- liquibase formatted sql
+
+-- changeset agent:1792302309635-1
+CREATE INDEX idx_section_days ON public.section (days, section_id);
+
+-- changeset agent:1792302309635-2
+CREATE INDEX idx_section_subject ON public.section (subject_subject_id, section_id);
+
+-- changeset agent:1792302309635-3
+CREATE INDEX idx_section_instructor ON public.section (instructor_faculty_number, section_id);
+
+-- changeset agent:1792302309635-4
+CREATE INDEX idx_student_sections_student ON public.student_sections (student_student_number, sections_section_id);
+
+-- liquibase formatted sql
+
+-- changeset agent:1792310583914-1
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- changeset agent:1792310583914-2
+ALTER TABLE public.section ADD schedule_range TSRANGE GENERATED ALWAYS AS (tsrange(DATE '2000-01-01' + days + start_time, DATE '2000-01-01' + days + end_time)) STORED;
+
+-- changeset agent:1792310583914-3
+ALTER TABLE public.section ADD CONSTRAINT section_room_schedule_excl EXCLUDE USING gist (room_name WITH =, schedule_range WITH &&);
+
+-- changeset agent:1792310583914-4
+ALTER TABLE public.section ADD CONSTRAINT section_instructor_schedule_excl EXCLUDE USING gist (instructor_faculty_number WITH =, schedule_range WITH &&);
+
+-- changeset agent:1792310583914-5
+DROP TABLE public.room_sections;
+
+-- liquibase formatted sql
+
+-- changeset agent:1792389476127-1
+ALTER TABLE public.section ADD seat_shards INTEGER DEFAULT 0 NOT NULL;
+
+-- changeset agent:1792389476127-2
+CREATE TABLE public.section_seat_shard (section_id TEXT NOT NULL, shard INTEGER NOT NULL, capacity INTEGER NOT NULL, number_of_students INTEGER NOT NULL, CONSTRAINT section_seat_shard_pkey PRIMARY KEY (section_id, shard), CONSTRAINT section_seat_shard_seats CHECK (number_of_students BETWEEN 0 AND capacity));
+
+-- changeset agent:1792389476127-3
+ALTER TABLE public.section_seat_shard ADD CONSTRAINT fk_section_seat_shard_section FOREIGN KEY (section_id) REFERENCES public.section (section_id) ON UPDATE NO ACTION ON DELETE NO ACTION;
+
+-- liquibase formatted sql
+
+-- changeset agent:1792475120518-1
+CREATE TABLE public.wish_list_entry (student_number INTEGER NOT NULL, section_id TEXT NOT NULL, preference INTEGER NOT NULL, CONSTRAINT wish_list_entry_pkey PRIMARY KEY (student_number, preference), CONSTRAINT wish_list_entry_section UNIQUE (student_number, section_id));
+
+-- changeset agent:1792475120518-2
+ALTER TABLE public.wish_list_entry ADD CONSTRAINT fk_wish_list_entry_student FOREIGN KEY (student_number) REFERENCES public.student (student_number) ON UPDATE NO ACTION ON DELETE NO ACTION;
+
+-- changeset agent:1792475120518-3
+ALTER TABLE public.wish_list_entry ADD CONSTRAINT fk_wish_list_entry_section FOREIGN KEY (section_id) REFERENCES public.section (section_id) ON UPDATE NO ACTION ON DELETE NO ACTION;
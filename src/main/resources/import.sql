@@ -1,3 +1,12 @@
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+ALTER TABLE section ADD schedule_range TSRANGE GENERATED ALWAYS AS (tsrange(DATE '2000-01-01' + days + start_time, DATE '2000-01-01' + days + end_time)) STORED;
+ALTER TABLE section ADD CONSTRAINT section_room_schedule_excl EXCLUDE USING gist (room_name WITH =, schedule_range WITH &&);
+ALTER TABLE section ADD CONSTRAINT section_instructor_schedule_excl EXCLUDE USING gist (instructor_faculty_number WITH =, schedule_range WITH &&);
+DROP TABLE IF EXISTS section_seat_shard;
+CREATE TABLE section_seat_shard (section_id VARCHAR(255) NOT NULL REFERENCES section (section_id), shard INTEGER NOT NULL, capacity INTEGER NOT NULL, number_of_students INTEGER NOT NULL, PRIMARY KEY (section_id, shard), CHECK (number_of_students BETWEEN 0 AND capacity));
+DROP TABLE IF EXISTS wish_list_entry;
+CREATE TABLE wish_list_entry (student_number INTEGER NOT NULL REFERENCES student (student_number), section_id VARCHAR(255) NOT NULL REFERENCES section (section_id), preference INTEGER NOT NULL, PRIMARY KEY (student_number, preference), UNIQUE (student_number, section_id));
+
 INSERT INTO subject (subject_id) VALUES ('PE1'), ('Psych101'), ('Econ101'), ('BA101'), ('ES1'), ('Com1'), ('Math1'), ('Math2'), ('Stat1');
 INSERT INTO subject_prerequisites (subject_subject_id, prerequisites_subject_id) VALUES ('Math2', 'Math1'), ('Stat1','Math2');
 INSERT INTO room (name, capacity) VALUES ('AS204', 10), ('AS105', 10), ('FC103', 10), ('ENG302', 10), ('Stat213', 10),
@@ -14,8 +23,5 @@ INSERT INTO section (section_id, number_of_students, days, start_time, end_time,
 ('MNO', 0, 1, '14:30', '16:00', 'Stat213', 'Stat1'),
 ('YZA', 0, 2, '11:30', '13:00', 'Gym', 'PE1');
 
-INSERT INTO room_sections (room_name, sections_section_id) VALUES ('AS204', 'ABC'), ('BA313', 'PQR'), ('Econ123', 'STU'),
-('AS105','DEF'), ('FC103', 'GHI'), ('Psych217','VWX'), ('ENG302', 'JKL'), ('Stat213', 'MNO'), ('Gym', 'YZA');
-
 INSERT INTO student (student_number, firstname, lastname) VALUES
 (1, 'Meredith', 'Grey'), (2, 'Alex', 'Karev'), (3, 'Derek', 'Shepherd');
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.orangeandbronze.enlistment.controllers;
+
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    void tryAcquire_rejects_requests_over_the_limit() {
+        // Given a limit of 2
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 2, 10);
+        // When 3 requests arrive, then one of the first two completes & another arrives
+        boolean first = limit.tryAcquire();
+        boolean second = limit.tryAcquire();
+        boolean third = limit.tryAcquire();
+        limit.release(FAST);
+        boolean fourth = limit.tryAcquire();
+        // Then only the third should be rejected
+        assertAll(
+                () -> assertTrue(first),
+                () -> assertTrue(second),
+                () -> assertFalse(third),
+                () -> assertTrue(fourth),
+                () -> assertEquals(2, limit.getInFlight())
+        );
+    }
+
+    @Test
+    void release_grows_limit_while_latency_is_steady_at_the_limit() {
+        // Given a limit of 10, w/ every request let in
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 10, 100);
+        // When requests keep the limit full & complete w/ the same latency
+        for (int i = 0; i < 50; i++) {
+            fill(limit);
+            limit.release(FAST);
+        }
+        // Then the limit should have grown
+        assertTrue(limit.getLimit() > 10, "limit was " + limit.getLimit());
+    }
+
+    @Test
+    void release_shrinks_limit_once_latency_rises() {
+        // Given a limit that has grown under steady latency
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 5, 100);
+        for (int i = 0; i < 50; i++) {
+            fill(limit);
+            limit.release(FAST);
+        }
+        int grown = limit.getLimit();
+        // When requests start taking 10 times as long, as they queue
+        for (int i = 0; i < 20; i++) {
+            fill(limit);
+            limit.release(10 * FAST);
+        }
+        // Then the limit should shrink, but not below the minimum
+        assertAll(
+                () -> assertTrue(limit.getLimit() < grown, "limit was " + limit.getLimit() + ", grown to " + grown),
+                () -> assertTrue(limit.getLimit() >= 5)
+        );
+    }
+
+    private static void fill(AdaptiveConcurrencyLimit limit) {
+        while (limit.tryAcquire()) {
+            // keep acquiring until the limit is reached
+        }
+    }
+}
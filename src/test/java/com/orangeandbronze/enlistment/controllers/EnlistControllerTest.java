@@ -1,21 +1,23 @@
 package com.orangeandbronze.enlistment.controllers;
 
 import com.orangeandbronze.enlistment.domain.*;
-import org.hibernate.Session;
 import org.junit.jupiter.api.*;
+import org.mockito.*;
+import org.springframework.transaction.*;
+import org.springframework.transaction.support.*;
+import org.springframework.web.servlet.mvc.support.*;
 
-import javax.persistence.EntityManager;
-import java.util.Optional;
+import java.util.*;
 
 import static com.orangeandbronze.enlistment.domain.TestUtils.*;
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 class EnlistControllerTest {
 
     @Test
     void enlistOrCancel_enlist_student_in_section() {
-        // Given the controller w/ a student in session, param of sectionId to enlist, & UserAction "ENLIST"
+        // Given the controller w/ a logged in student, param of sectionId to enlist, & UserAction "ENLIST"
         Student student = mock(Student.class);
         String sectionId = DEFAULT_SECTION_ID;
         UserAction userAction = UserAction.ENLIST;
@@ -24,25 +26,188 @@ class EnlistControllerTest {
         Section section = new Section(sectionId, DEFAULT_SUBJECT,
                 MTH830to10, DEFAULT_ROOM, DEFAULT_FACULTY);
         when(sectionRepository.findById(sectionId)).thenReturn(Optional.of(section));
+        when(sectionRepository.claimSeat(sectionId)).thenReturn(1);
+        PrerequisiteGraph prerequisiteGraph = mock(PrerequisiteGraph.class);
+        when(student.enlist(section, prerequisiteGraph)).thenReturn(true);
         StudentRepository studentRepository = mock(StudentRepository.class);
         EnlistController controller = new EnlistController();
+        controller.setIdempotentSubmissions(new IdempotentSubmissions(100, 60));
         controller.setSectionRepo(sectionRepository);
+        when(studentRepository.findWithSectionsByStudentNumber(DEFAULT_STUDENT_NUMBER)).thenReturn(Optional.of(student));
         controller.setStudentRepo(studentRepository);
-        EntityManager entityManager = mock(EntityManager.class);
-        Session session = mock(Session.class);
-        when(entityManager.unwrap(Session.class)).thenReturn(session);
-        controller.setEntityManager(entityManager); // to avoid NullPointerException
-        String returnVal = controller.enlistOrCancel(student, sectionId, userAction);
+        controller.setPrerequisiteGraph(prerequisiteGraph);
+        SectionLockProvider sectionLocks = mock(SectionLockProvider.class);
+        controller.setSectionLocks(sectionLocks);
+        controller.setTransactionTemplate(new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        String returnVal = controller.enlistOrCancel(DEFAULT_STUDENT_NUMBER, sectionId, userAction, null, null);
         // Then
+        // - lock the section for the rest of the transaction
+        verify(sectionLocks).lockAll(List.of(sectionId));
         // - retrieve the Section object from the DB using the sectionId
         verify(sectionRepository).findById(sectionId);
         // - student.enlist method will be called, passing in the section
-        verify(student).enlist(section);
+        verify(student).enlist(section, prerequisiteGraph);
         // - save student to DB
         verify(studentRepository).save(student);
-        // - save section to DB
-        verify(sectionRepository).save(section);
+        // - claim a seat in the section in the DB
+        verify(sectionRepository).claimSeat(sectionId);
         assertEquals("redirect:enlist", returnVal);
     }
 
+    @Test
+    void enlistOrCancel_enlist_student_in_full_section() {
+        // Given the controller w/ a logged in student, & a section whose seats were all claimed in the DB
+        Student student = mock(Student.class);
+        String sectionId = DEFAULT_SECTION_ID;
+        SectionRepository sectionRepository = mock(SectionRepository.class);
+        Section section = new Section(sectionId, DEFAULT_SUBJECT,
+                MTH830to10, new Room("X", 10), DEFAULT_FACULTY);
+        when(sectionRepository.findById(sectionId)).thenReturn(Optional.of(section));
+        when(sectionRepository.claimSeat(sectionId)).thenReturn(0);
+        PrerequisiteGraph prerequisiteGraph = mock(PrerequisiteGraph.class);
+        when(student.enlist(section, prerequisiteGraph)).thenReturn(true);
+        EnlistController controller = new EnlistController();
+        controller.setIdempotentSubmissions(new IdempotentSubmissions(100, 60));
+        controller.setSectionRepo(sectionRepository);
+        StudentRepository studentRepository = mock(StudentRepository.class);
+        when(studentRepository.findWithSectionsByStudentNumber(DEFAULT_STUDENT_NUMBER)).thenReturn(Optional.of(student));
+        controller.setStudentRepo(studentRepository);
+        controller.setPrerequisiteGraph(prerequisiteGraph);
+        controller.setSectionLocks(mock(SectionLockProvider.class));
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        controller.setTransactionTemplate(new TransactionTemplate(transactionManager));
+        // When enlist (post) method is called
+        // Then an exception should be thrown so the enlistment is rolled back
+        assertThrows(EnlistmentException.class, () -> controller.enlistOrCancel(DEFAULT_STUDENT_NUMBER, sectionId, UserAction.ENLIST, null, null));
+        // & the transaction it was loaded in rolled back, so the enlistment isn't saved
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void enlistOrCancel_enlist_student_through_section_actors() {
+        // Given the controller w/ the actors engine, a logged in student & a sectionId to enlist in
+        EnlistmentActors enlistmentActors = mock(EnlistmentActors.class);
+        SectionRepository sectionRepository = mock(SectionRepository.class);
+        EnlistController controller = new EnlistController();
+        controller.setIdempotentSubmissions(new IdempotentSubmissions(100, 60));
+        controller.setEnlistmentActors(enlistmentActors);
+        controller.setSectionRepo(sectionRepository);
+        // When enlist (post) method is called
+        String returnVal = controller.enlistOrCancel(DEFAULT_STUDENT_NUMBER, DEFAULT_SECTION_ID, UserAction.ENLIST, null, null);
+        // Then the enlistment should be handed to the section's actor, w/o the request thread touching the DB
+        verify(enlistmentActors).enlist(DEFAULT_STUDENT_NUMBER, DEFAULT_SECTION_ID);
+        verifyNoInteractions(sectionRepository);
+        assertEquals("redirect:enlist", returnVal);
+    }
+
+    @Test
+    void enlistAll_enlist_student_in_selected_sections() {
+        // Given the controller w/ a logged in student, & two selected sections w/ seats left
+        Student student = new Student(DEFAULT_STUDENT_NUMBER, "firstname", "lastname");
+        Section sectionA = new Section("A", new Subject("C"), MTH830to10, new Room("X", 10), newFaculty(1));
+        Section sectionB = new Section("B", new Subject("D"), TF830to10, new Room("Y", 10), newFaculty(2));
+        SectionRepository sectionRepository = mock(SectionRepository.class);
+        when(sectionRepository.findAllById(any())).thenReturn(List.of(sectionB, sectionA));
+        when(sectionRepository.claimSeat(anyString())).thenReturn(1);
+        StudentRepository studentRepository = mock(StudentRepository.class);
+        EnlistController controller = new EnlistController();
+        controller.setIdempotentSubmissions(new IdempotentSubmissions(100, 60));
+        controller.setSectionRepo(sectionRepository);
+        when(studentRepository.findWithSectionsByStudentNumber(DEFAULT_STUDENT_NUMBER)).thenReturn(Optional.of(student));
+        controller.setStudentRepo(studentRepository);
+        SubjectRepository subjectRepository = mock(SubjectRepository.class);
+        when(subjectRepository.findAllWithPrerequisites()).thenReturn(List.of(sectionA.getSubject(), sectionB.getSubject()));
+        PrerequisiteGraph prerequisiteGraph = new PrerequisiteGraph(subjectRepository);
+        prerequisiteGraph.rebuild();
+        controller.setPrerequisiteGraph(prerequisiteGraph);
+        SectionLockProvider sectionLocks = mock(SectionLockProvider.class);
+        controller.setSectionLocks(sectionLocks);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        controller.setTransactionTemplate(new TransactionTemplate(transactionManager));
+        RedirectAttributes redirectAttrs = mock(RedirectAttributes.class);
+        // When the selected sections are submitted together
+        String returnVal = controller.enlistAll(DEFAULT_STUDENT_NUMBER, List.of("B", "A"), null, redirectAttrs);
+        // Then
+        // - lock the sections together, so the provider takes their locks in its own order
+        verify(sectionLocks).lockAll(List.of("A", "B"));
+        // - enlist the student in both, save the student & claim a seat in each, committing them together
+        verify(studentRepository).save(student);
+        verify(sectionRepository).claimSeat("A");
+        verify(sectionRepository).claimSeat("B");
+        verify(transactionManager).commit(any());
+        assertAll(
+                () -> assertEquals(Set.of(sectionA, sectionB), new HashSet<>(student.getSections())),
+                () -> verify(redirectAttrs).addFlashAttribute("batchOutcomes",
+                        Map.of("A", EnlistController.BATCH_ENLISTED, "B", EnlistController.BATCH_ENLISTED)),
+                () -> assertEquals("redirect:/enlist", returnVal)
+        );
+    }
+
+    @Test
+    void enlistOrCancel_swap_student_to_section() {
+        // Given the controller w/ a logged in student, the sectionId to swap into, & the enlisted one to leave
+        Student student = mock(Student.class);
+        Section oldSection = new Section("B", DEFAULT_SUBJECT, MTH830to10, new Room("X", 10), newFaculty(1));
+        Section newSection = new Section("A", DEFAULT_SUBJECT, MTH830to10, new Room("Y", 10), newFaculty(2));
+        SectionRepository sectionRepository = mock(SectionRepository.class);
+        when(sectionRepository.findById("A")).thenReturn(Optional.of(newSection));
+        when(sectionRepository.findById("B")).thenReturn(Optional.of(oldSection));
+        when(sectionRepository.claimSeat("A")).thenReturn(1);
+        PrerequisiteGraph prerequisiteGraph = mock(PrerequisiteGraph.class);
+        when(student.swap(oldSection, newSection, prerequisiteGraph)).thenReturn(true);
+        StudentRepository studentRepository = mock(StudentRepository.class);
+        EnlistController controller = new EnlistController();
+        controller.setIdempotentSubmissions(new IdempotentSubmissions(100, 60));
+        controller.setSectionRepo(sectionRepository);
+        when(studentRepository.findWithSectionsByStudentNumber(DEFAULT_STUDENT_NUMBER)).thenReturn(Optional.of(student));
+        controller.setStudentRepo(studentRepository);
+        controller.setPrerequisiteGraph(prerequisiteGraph);
+        SectionLockProvider sectionLocks = mock(SectionLockProvider.class);
+        controller.setSectionLocks(sectionLocks);
+        controller.setTransactionTemplate(new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        // When swap (post) method is called
+        String returnVal = controller.enlistOrCancel(DEFAULT_STUDENT_NUMBER, "A", UserAction.SWAP, "B", null);
+        // Then
+        // - lock both sections together, so the provider takes their locks in its own order
+        verify(sectionLocks).lockAll(List.of("A", "B"));
+        // - swap the sections, save the student, then claim the new seat & release the old one, in sectionId order
+        verify(student).swap(oldSection, newSection, prerequisiteGraph);
+        verify(studentRepository).save(student);
+        InOrder seatOrder = inOrder(sectionRepository);
+        seatOrder.verify(sectionRepository).claimSeat("A");
+        seatOrder.verify(sectionRepository).releaseSeat("B");
+        assertEquals("redirect:enlist", returnVal);
+    }
+
+    @Test
+    void enlistOrCancel_double_submitted_enlistment_runs_once() {
+        // Given the controller w/ a logged in student, & a section w/ seats left
+        Student student = mock(Student.class);
+        String sectionId = DEFAULT_SECTION_ID;
+        SectionRepository sectionRepository = mock(SectionRepository.class);
+        Section section = new Section(sectionId, DEFAULT_SUBJECT, MTH830to10, new Room("X", 10), DEFAULT_FACULTY);
+        when(sectionRepository.findById(sectionId)).thenReturn(Optional.of(section));
+        when(sectionRepository.claimSeat(sectionId)).thenReturn(1);
+        PrerequisiteGraph prerequisiteGraph = mock(PrerequisiteGraph.class);
+        when(student.enlist(section, prerequisiteGraph)).thenReturn(true);
+        EnlistController controller = new EnlistController();
+        controller.setIdempotentSubmissions(new IdempotentSubmissions(100, 60));
+        controller.setSectionRepo(sectionRepository);
+        StudentRepository studentRepository = mock(StudentRepository.class);
+        when(studentRepository.findWithSectionsByStudentNumber(DEFAULT_STUDENT_NUMBER)).thenReturn(Optional.of(student));
+        controller.setStudentRepo(studentRepository);
+        controller.setPrerequisiteGraph(prerequisiteGraph);
+        controller.setSectionLocks(mock(SectionLockProvider.class));
+        controller.setTransactionTemplate(new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        // When the enlist form is submitted twice w/ the same token
+        String first = controller.enlistOrCancel(DEFAULT_STUDENT_NUMBER, sectionId, UserAction.ENLIST, null, "token");
+        String second = controller.enlistOrCancel(DEFAULT_STUDENT_NUMBER, sectionId, UserAction.ENLIST, null, "token");
+        // Then the enlistment should run once, & the duplicate get the same result
+        verify(sectionRepository, times(1)).findById(sectionId);
+        verify(sectionRepository, times(1)).claimSeat(sectionId);
+        assertEquals(first, second);
+    }
+
 }
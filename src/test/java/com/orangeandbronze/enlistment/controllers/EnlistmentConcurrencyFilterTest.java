@@ -0,0 +1,47 @@
+package com.orangeandbronze.enlistment.controllers;
+
+import io.micrometer.core.instrument.simple.*;
+import org.junit.jupiter.api.*;
+import org.springframework.mock.web.*;
+
+import javax.servlet.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class EnlistmentConcurrencyFilterTest {
+
+    @Test
+    void doFilter_sheds_enlist_requests_over_the_limit() throws Exception {
+        // Given the filter w/ a limit of 1, & an enlistment request in flight
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        EnlistmentConcurrencyFilter filter = new EnlistmentConcurrencyFilter(meterRegistry, 1, 1, 1, 2);
+        assertTrue(filter.getLimit().tryAcquire());
+        FilterChain chain = mock(FilterChain.class);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        // When another enlistment request arrives
+        filter.doFilter(new MockHttpServletRequest("POST", "/enlist"), response, chain);
+        // Then it should get a 503 w/ Retry-After, w/o reaching the controller, & be counted as rejected
+        assertAll(
+                () -> assertEquals(503, response.getStatus()),
+                () -> assertEquals("2", response.getHeader("Retry-After")),
+                () -> verifyNoInteractions(chain),
+                () -> assertEquals(1, meterRegistry.counter("enlistment.concurrency.rejected", "method", "POST").count())
+        );
+    }
+
+    @Test
+    void doFilter_lets_other_paths_through_over_the_limit() throws Exception {
+        // Given the filter w/ a limit of 1, & an enlistment request in flight
+        EnlistmentConcurrencyFilter filter = new EnlistmentConcurrencyFilter(new SimpleMeterRegistry(), 1, 1, 1, 1);
+        assertTrue(filter.getLimit().tryAcquire());
+        FilterChain chain = mock(FilterChain.class);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/sections");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        // When a request for another path arrives
+        filter.doFilter(request, response, chain);
+        // Then it should reach the controller
+        verify(chain).doFilter(request, response);
+        assertEquals(200, response.getStatus());
+    }
+}
@@ -0,0 +1,105 @@
+package com.orangeandbronze.enlistment.controllers;
+
+import com.orangeandbronze.enlistment.domain.*;
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotentSubmissionsTest {
+
+    @Test
+    void submit_duplicate_gets_first_outcome_without_running() {
+        // Given a submission that completed, & one that was rejected
+        IdempotentSubmissions submissions = new IdempotentSubmissions(10, 60);
+        AtomicInteger runs = new AtomicInteger();
+        submissions.submit(1, "a", () -> "result" + runs.incrementAndGet());
+        EnlistmentException rejection = new EnlistmentException("rejected");
+        assertThrows(EnlistmentException.class, () -> submissions.submit(1, "b", () -> {
+            throw rejection;
+        }));
+        // When each is submitted again, & the first by another student
+        String duplicate = submissions.submit(1, "a", () -> "result" + runs.incrementAndGet());
+        EnlistmentException duplicateRejection = assertThrows(EnlistmentException.class,
+                () -> submissions.submit(1, "b", () -> "not rejected"));
+        String otherStudents = submissions.submit(2, "a", () -> "result" + runs.incrementAndGet());
+        // Then the duplicates should get the first outcomes, & only the other student's submission run
+        assertAll(
+                () -> assertEquals("result1", duplicate),
+                () -> assertSame(rejection, duplicateRejection),
+                () -> assertEquals("result2", otherStudents)
+        );
+    }
+
+    @Test
+    void submit_duplicate_while_first_is_running_waits_for_it() throws Exception {
+        // Given a submission that is still running
+        IdempotentSubmissions submissions = new IdempotentSubmissions(10, 60);
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<String> first = executor.submit(() -> submissions.submit(1, "a", () -> {
+            running.countDown();
+            await(finish);
+            return "result" + runs.incrementAndGet();
+        }));
+        running.await();
+        // When a duplicate arrives, then the first completes
+        Future<String> duplicate = executor.submit(() -> submissions.submit(1, "a", () -> "result" + runs.incrementAndGet()));
+        Thread.sleep(50);
+        assertFalse(duplicate.isDone());
+        finish.countDown();
+        // Then both should get the outcome of the one run
+        assertAll(
+                () -> assertEquals("result1", first.get(5, TimeUnit.SECONDS)),
+                () -> assertEquals("result1", duplicate.get(5, TimeUnit.SECONDS)),
+                () -> assertEquals(1, runs.get())
+        );
+        executor.shutdown();
+    }
+
+    @Test
+    void submit_forgets_outcomes_once_expired_or_over_max_entries() {
+        // Given at most 2 outcomes, kept for 60 seconds
+        AtomicLong now = new AtomicLong();
+        IdempotentSubmissions submissions = new IdempotentSubmissions(2, 60, now::get);
+        AtomicInteger runs = new AtomicInteger();
+        submissions.submit(1, "a", runs::incrementAndGet);
+        submissions.submit(1, "b", runs::incrementAndGet);
+        // When a 3rd is submitted, & after 60 seconds the 2nd again
+        submissions.submit(1, "c", runs::incrementAndGet);
+        int afterThird = submissions.size();
+        now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        submissions.submit(1, "b", runs::incrementAndGet);
+        // Then the oldest should be dropped for the 3rd, & the 2nd run again once expired
+        assertAll(
+                () -> assertEquals(2, afterThird),
+                () -> assertEquals(4, runs.get()),
+                () -> assertEquals(1, submissions.size())
+        );
+    }
+
+    @Test
+    void submit_unexpected_failure_can_be_retried() {
+        // Given a submission that failed unexpectedly
+        IdempotentSubmissions submissions = new IdempotentSubmissions(10, 60);
+        assertThrows(IllegalStateException.class, () -> submissions.submit(1, "a", () -> {
+            throw new IllegalStateException("connection lost");
+        }));
+        // When it is submitted again
+        String retried = submissions.submit(1, "a", () -> "result");
+        // Then it should run again
+        assertEquals("result", retried);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -5,8 +5,6 @@ import org.junit.jupiter.api.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.time.LocalTime;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Optional;
 
 import static com.orangeandbronze.enlistment.domain.TestUtils.*;
@@ -38,11 +36,13 @@ class SectionsControllerTest {
         SectionRepository sectionRepository = mock(SectionRepository.class);
         FacultyRepository facultyRepository = mock(FacultyRepository.class);
         when(facultyRepository.findById(DEFAULT_FACULTY_NUMBER)).thenReturn(Optional.of(DEFAULT_FACULTY));
+        SectionCatalog sectionCatalog = mock(SectionCatalog.class);
         SectionsController controller = new SectionsController();
         controller.setSubjectRepo(subjectRepository);
         controller.setAdminRepo(adminRepository);
         controller.setRoomRepo(roomRepository);
         controller.setSectionRepo(sectionRepository);
+        controller.setSectionCatalog(sectionCatalog);
         controller.setFacultyRepository(facultyRepository);
         String returnVal = controller.createSection(sectionId, subjectId, days, startTime, endTime, roomName, facultyNumber, redirectAttrs);
         // Then a new section shall be created and saved to the DB
@@ -56,7 +56,8 @@ class SectionsControllerTest {
         assertAll(
                 () -> verify(subjectRepository).findById(subjectId),
                 () -> verify(roomRepository).findById(roomName),
-                () -> verify(sectionRepository).save(section),
+                () -> verify(sectionRepository).create(section),
+                () -> verify(sectionCatalog).invalidate(),
                 () -> assertEquals("redirect:sections", returnVal)
         );
     }
@@ -100,8 +101,8 @@ class SectionsControllerTest {
     @Test
     void createSection_create_section_with_overlapping_schedule_and_instructor() {
         // Given a controller w/ params sectionId, subjectId, days, start time, end time, roomName, facultyNumber
-        // and redirectAttrs to create a new section, and an existing section in the repository whose schedule will overlap
-        // with the new section being created and has the same instructor as well.
+        // and redirectAttrs to create a new section, and a repository that rejects the new section since an existing
+        // section's schedule overlaps with it and has the same instructor as well.
         String sectionId = "X12";
         String subjectId = DEFAULT_SUBJECT.toString();
         Days days = Days.WS;
@@ -118,11 +119,9 @@ class SectionsControllerTest {
         Room room = mock(Room.class);
         when(roomRepository.findById(roomName)).thenReturn(Optional.of(room));
         SectionRepository sectionRepository = mock(SectionRepository.class);
-        Schedule schedule = new Schedule(Days.WS, new Period(LocalTime.parse("09:00"), LocalTime.parse("12:00")));
-        Section section = new Section(DEFAULT_SECTION_ID, DEFAULT_SUBJECT, schedule, DEFAULT_ROOM, DEFAULT_FACULTY);
-        List<Section> sections = new ArrayList<>();
-        sections.add(section);
-        when(sectionRepository.findAll()).thenReturn(sections);
+        when(sectionRepository.create(any())).thenThrow(new EnlistmentException("Section " + DEFAULT_SECTION_ID +
+                " & new section " + sectionId + " cannot have the same instructor #" + DEFAULT_FACULTY +
+                " as they have overlapping schedules"));
         FacultyRepository facultyRepository = mock(FacultyRepository.class);
         when(facultyRepository.findById(DEFAULT_FACULTY_NUMBER)).thenReturn(Optional.of(DEFAULT_FACULTY));
         SectionsController controller = new SectionsController();
@@ -0,0 +1,111 @@
+package com.orangeandbronze.enlistment.domain;
+
+import org.junit.jupiter.api.*;
+import org.springframework.transaction.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static com.orangeandbronze.enlistment.domain.TestUtils.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class EnlistmentActorsTest {
+
+    private final StudentRepository studentRepo = mock(StudentRepository.class);
+    private final SectionRepository sectionRepo = mock(SectionRepository.class);
+    private final Section section = new Section(DEFAULT_SECTION_ID, DEFAULT_SUBJECT, MTH830to10, new Room("X", 1),
+            DEFAULT_FACULTY);
+    private EnlistmentActors enlistmentActors;
+
+    @BeforeEach
+    void startActors() {
+        when(sectionRepo.findById(DEFAULT_SECTION_ID)).thenReturn(Optional.of(section));
+        when(sectionRepo.claimSeat(DEFAULT_SECTION_ID)).thenReturn(1);
+        when(sectionRepo.releaseSeat(DEFAULT_SECTION_ID)).thenReturn(1);
+        enlistmentActors = new EnlistmentActors(studentRepo, sectionRepo, new PrerequisiteGraph(List.of(DEFAULT_SUBJECT)),
+                mock(PlatformTransactionManager.class), 2, 5);
+        enlistmentActors.start();
+    }
+
+    @AfterEach
+    void stopActors() throws InterruptedException {
+        enlistmentActors.stop();
+    }
+
+    @Test
+    void enlist_second_student_in_section_w_one_seat() {
+        // Given two students, & a section w/ one seat
+        when(studentRepo.findById(1)).thenReturn(Optional.of(new Student(1, "firstname", "lastname")));
+        when(studentRepo.findById(2)).thenReturn(Optional.of(new Student(2, "firstname", "lastname")));
+        // When both enlist through the section's actor
+        boolean first = enlistmentActors.enlist(1, DEFAULT_SECTION_ID);
+        // Then only the first should get the seat, & the second should get the capacity rejection
+        assertAll(
+                () -> assertTrue(first),
+                () -> assertThrows(CapacityException.class, () -> enlistmentActors.enlist(2, DEFAULT_SECTION_ID))
+        );
+        verify(sectionRepo, times(1)).claimSeat(DEFAULT_SECTION_ID);
+    }
+
+    @Test
+    void enlist_undone_if_seat_not_claimed_in_database() {
+        // Given a student, & a section whose seat was taken in the database
+        Student student = new Student(1, "firstname", "lastname");
+        when(studentRepo.findById(1)).thenReturn(Optional.of(student));
+        when(sectionRepo.claimSeat(DEFAULT_SECTION_ID)).thenReturn(0);
+        // When the student enlists through the section's actor
+        // Then the enlistment should be rejected, & the student left w/o the section
+        assertThrows(CapacityException.class, () -> enlistmentActors.enlist(1, DEFAULT_SECTION_ID));
+        assertTrue(student.getSections().isEmpty());
+    }
+
+    @Test
+    void cancel_releases_seat_only_if_enlisted() {
+        // Given a student enlisted in the section, & one who isn't
+        when(studentRepo.findById(1)).thenReturn(Optional.of(new Student(1, "firstname", "lastname", List.of(section))));
+        when(studentRepo.findById(2)).thenReturn(Optional.of(new Student(2, "firstname", "lastname")));
+        // When both cancel through the section's actor
+        boolean enlisted = enlistmentActors.cancel(1, DEFAULT_SECTION_ID);
+        boolean notEnlisted = enlistmentActors.cancel(2, DEFAULT_SECTION_ID);
+        // Then only the enlisted student's seat should be given back
+        assertAll(
+                () -> assertTrue(enlisted),
+                () -> assertFalse(notEnlisted)
+        );
+        verify(sectionRepo, times(1)).releaseSeat(DEFAULT_SECTION_ID);
+    }
+
+    @Test
+    void enlist_error_in_worker_fails_its_batch_only() {
+        // Given a student whose loading fails w/ an Error, & one who loads fine
+        when(studentRepo.findById(1)).thenThrow(new StackOverflowError());
+        when(studentRepo.findById(2)).thenReturn(Optional.of(new Student(2, "firstname", "lastname")));
+        // When both enlist through the section's actor, one after the other
+        // Then the first should fail instead of waiting forever, & the worker should still enlist the second
+        assertThrows(IllegalStateException.class, () -> enlistmentActors.enlist(1, DEFAULT_SECTION_ID));
+        assertTrue(enlistmentActors.enlist(2, DEFAULT_SECTION_ID));
+    }
+
+    @Test
+    void enlist_gives_up_waiting_after_timeout() throws InterruptedException {
+        // Given actors that wait at most a second, & a student whose loading hangs
+        CountDownLatch release = new CountDownLatch(1);
+        when(studentRepo.findById(1)).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return Optional.of(new Student(1, "firstname", "lastname"));
+        });
+        EnlistmentActors actors = new EnlistmentActors(studentRepo, sectionRepo,
+                new PrerequisiteGraph(List.of(DEFAULT_SUBJECT)), mock(PlatformTransactionManager.class), 1, 1);
+        actors.start();
+        try {
+            // When the student enlists through the section's actor
+            // Then the wait should end w/ an exception once the timeout passes
+            IllegalStateException e = assertThrows(IllegalStateException.class, () -> actors.enlist(1, DEFAULT_SECTION_ID));
+            assertTrue(e.getMessage().startsWith("no result after 1s"), e.getMessage());
+        } finally {
+            release.countDown();
+            actors.stop();
+        }
+    }
+}
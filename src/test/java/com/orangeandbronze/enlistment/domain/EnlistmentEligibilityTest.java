@@ -0,0 +1,47 @@
+package com.orangeandbronze.enlistment.domain;
+
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static com.orangeandbronze.enlistment.domain.TestUtils.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnlistmentEligibilityTest {
+
+    @Test
+    void of_each_section_blocked_by_first_rule_it_breaks() {
+        // Given a student enlisted in a Math1 section on MTH 8:30-10, who has taken no subjects, where Math2 needs Math1
+        Subject math1 = new Subject("Math1");
+        Subject math2 = new Subject("Math2", List.of(math1));
+        Subject econ = new Subject("Econ");
+        PrerequisiteGraph graph = new PrerequisiteGraph(List.of(math1, math2, econ));
+        EnlistmentEligibility eligibility = new EnlistmentEligibility(
+                List.of(new SectionSummary("ENLISTED", "Math1", MTH830to10, "R1", 10, 1, null)), List.of(), graph);
+        // When the eligibility of sections breaking each rule is computed, the conflicting one also being full
+        Map<String, Eligibility> statuses = eligibility.of(List.of(
+                new SectionSummary("CONFLICT", "Econ", MTH830to10, "R2", 10, 10, null),
+                new SectionSummary("SAME", "Math1", TF830to10, "R3", 10, 0, null),
+                new SectionSummary("PREREQ", "Math2", TF10to1130, "R4", 10, 0, null),
+                new SectionSummary("FULL", "Econ", TF830to10, "R5", 10, 10, null),
+                new SectionSummary("OPEN", "Econ", TF10to1130, "R6", 10, 9, null)));
+        // Then each section should get the status of the first rule it breaks, in the order enlist checks them
+        assertEquals(List.of(Map.entry("CONFLICT", Eligibility.SCHEDULE_CONFLICT), Map.entry("SAME", Eligibility.SAME_SUBJECT),
+                Map.entry("PREREQ", Eligibility.MISSING_PREREQUISITES), Map.entry("FULL", Eligibility.FULL),
+                Map.entry("OPEN", Eligibility.ENLISTABLE)), new ArrayList<>(statuses.entrySet()));
+    }
+
+    @Test
+    void of_prerequisites_taken() {
+        // Given a student enlisted in nothing who has taken Math1, where Math2 needs Math1
+        Subject math1 = new Subject("Math1");
+        Subject math2 = new Subject("Math2", List.of(math1));
+        EnlistmentEligibility eligibility = new EnlistmentEligibility(List.of(), List.of("Math1"),
+                new PrerequisiteGraph(List.of(math1, math2)));
+        // When the eligibility of a Math2 section is computed
+        Map<String, Eligibility> statuses = eligibility.of(List.of(
+                new SectionSummary("M2", "Math2", MTH830to10, "R1", 10, 0, null)));
+        // Then it should be enlistable
+        assertEquals(Map.of("M2", Eligibility.ENLISTABLE), statuses);
+    }
+}
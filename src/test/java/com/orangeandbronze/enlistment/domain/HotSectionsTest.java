@@ -0,0 +1,66 @@
+package com.orangeandbronze.enlistment.domain;
+
+import org.junit.jupiter.api.*;
+import org.springframework.transaction.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class HotSectionsTest {
+
+    private static final long CONTENDED_WAIT = 2 * HotSections.CONTENDED_WAIT_NANOS;
+
+    @Test
+    void lockWaited_shards_section_once_its_lock_is_contended_often_enough() {
+        // Given hot section detection after 3 contended waits
+        SectionRepository sectionRepo = mock(SectionRepository.class);
+        HotSections hotSections = new HotSections(sectionRepo, mock(PlatformTransactionManager.class), 8, 3, new String[0]);
+        // When section ABC's lock is waited on 2 times, then 2 times more
+        hotSections.lockWaited("ABC", CONTENDED_WAIT);
+        hotSections.lockWaited("ABC", CONTENDED_WAIT);
+        verify(sectionRepo, never()).shardSeats(anyString(), anyInt());
+        hotSections.lockWaited("ABC", CONTENDED_WAIT);
+        hotSections.lockWaited("ABC", CONTENDED_WAIT);
+        // Then its seats should be sharded once, on the 3rd wait
+        verify(sectionRepo, times(1)).shardSeats("ABC", 8);
+    }
+
+    @Test
+    void lockWaited_section_whose_sharding_failed_is_sharded_again() {
+        // Given hot section detection after 1 contended wait, & a database that fails the first sharding of ABC
+        SectionRepository sectionRepo = mock(SectionRepository.class);
+        when(sectionRepo.shardSeats("ABC", 8)).thenThrow(new IllegalStateException("deadlock detected")).thenReturn(true);
+        HotSections hotSections = new HotSections(sectionRepo, mock(PlatformTransactionManager.class), 8, 1, new String[0]);
+        // When section ABC's lock is waited on, failing its sharding, then waited on again
+        assertThrows(IllegalStateException.class, () -> hotSections.lockWaited("ABC", CONTENDED_WAIT));
+        hotSections.lockWaited("ABC", CONTENDED_WAIT);
+        // Then its sharding should be retried
+        verify(sectionRepo, times(2)).shardSeats("ABC", 8);
+    }
+
+    @Test
+    void lockWaited_uncontended_waits_never_shard() {
+        // Given hot section detection after 3 contended waits
+        SectionRepository sectionRepo = mock(SectionRepository.class);
+        HotSections hotSections = new HotSections(sectionRepo, mock(PlatformTransactionManager.class), 8, 3, new String[0]);
+        // When section ABC's lock is taken many times w/o waiting
+        for (int i = 0; i < 10; i++) {
+            hotSections.lockWaited("ABC", 0);
+        }
+        // Then its seats should not be sharded
+        verify(sectionRepo, never()).shardSeats(anyString(), anyInt());
+    }
+
+    @Test
+    void shardConfiguredHotSections() {
+        // Given sections ABC & DEF configured as hot
+        SectionRepository sectionRepo = mock(SectionRepository.class);
+        HotSections hotSections = new HotSections(sectionRepo, mock(PlatformTransactionManager.class), 4, 0,
+                new String[]{"ABC", " DEF "});
+        // When the app starts
+        hotSections.shardConfiguredHotSections();
+        // Then both should have their seats sharded
+        verify(sectionRepo).shardSeats("ABC", 4);
+        verify(sectionRepo).shardSeats("DEF", 4);
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.jupiter.params.*;
 import org.junit.jupiter.params.provider.*;
 
 import java.time.*;
+import java.util.*;
 import java.util.stream.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -59,4 +60,29 @@ class PeriodTest {
     void checkOverlap_not_overlapping(Period p1, Period p2) {
         assertDoesNotThrow(() -> p1.checkEnlistmentOverlap(p2));
     }
+
+    @Test
+    void validateEnlistmentOverlap_returns_violation_without_throwing() {
+        // Given two overlapping periods
+        Period p1 = new Period(LocalTime.of(8, 30), LocalTime.of(10, 0));
+        Period p2 = new Period(LocalTime.of(9, 0), LocalTime.of(11, 0));
+        // When their overlap is validated
+        Violation violation = p1.validateEnlistmentOverlap(p2);
+        // Then a schedule conflict naming both should be returned, which turns into the same stackless exception
+        EnlistmentException e = assertThrows(ScheduleConflictException.class, violation::throwIfViolated);
+        assertAll(
+                () -> assertEquals(Violation.Rule.SCHEDULE_CONFLICT, violation.getRule()),
+                () -> assertEquals(List.of(p1, p2), violation.getOperands()),
+                () -> assertEquals("Period overlap between this: 08:30 - 10:00 & other: 09:00 - 11:00", e.getMessage()),
+                () -> assertSame(violation, e.getViolation()),
+                () -> assertEquals(0, e.getStackTrace().length),
+                () -> assertSame(Violation.NONE, p1.validateEnlistmentOverlap(new Period(LocalTime.of(10, 0), LocalTime.of(11, 0))))
+        );
+    }
+
+    @Test
+    void slotMask_whole_day() {
+        Period wholeDay = new Period(LocalTime.of(8, 30), LocalTime.of(17, 30));
+        assertEquals((1L << Period.SLOTS_PER_DAY) - 1, wholeDay.slotMask());
+    }
 }
@@ -0,0 +1,51 @@
+package com.orangeandbronze.enlistment.domain;
+
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrerequisiteGraphTest {
+
+    private final Subject math1 = new Subject("Math1");
+    private final Subject math2 = new Subject("Math2", List.of(math1));
+    private final Subject stat1 = new Subject("Stat1", List.of(math2));
+    private final PrerequisiteGraph graph = new PrerequisiteGraph(List.of(math1, math2, stat1));
+
+    @Test
+    void checkPrereqs_direct_prereqs_taken() {
+        // Given a subject whose direct prereq was taken
+        PrerequisiteGraph.SubjectSet subjectsTaken = graph.newSubjectSet(List.of(math2));
+        // When the prereqs are checked
+        // Then no exception should be thrown, since only direct prereqs are required
+        assertDoesNotThrow(() -> graph.checkPrereqs(stat1, subjectsTaken));
+    }
+
+    @Test
+    void checkPrereqs_prereq_missing() {
+        // Given a subject whose direct prereq wasn't taken
+        PrerequisiteGraph.SubjectSet subjectsTaken = graph.newSubjectSet(List.of(math1));
+        // When the prereqs are checked
+        // Then an exception naming the missing prereq should be thrown
+        PrereqMissingException e = assertThrows(PrereqMissingException.class, () -> graph.checkPrereqs(stat1, subjectsTaken));
+        assertEquals("missing prereqs: [Math2]", e.getMessage());
+    }
+
+    @Test
+    void getAllPrerequisites_transitive() {
+        assertEquals(Set.of(math1, math2), Set.copyOf(graph.getAllPrerequisites(stat1)));
+    }
+
+    @Test
+    void newGraph_prerequisite_cycle() {
+        // Given subjects whose prerequisites form a cycle
+        Collection<Subject> prereqsOfA = new ArrayList<>();
+        Subject a = new Subject("A", prereqsOfA);
+        Subject b = new Subject("B", List.of(a));
+        a.getPrerequisites().add(b);
+        // When the graph is built
+        // Then an exception should be thrown
+        assertThrows(IllegalStateException.class, () -> new PrerequisiteGraph(List.of(a, b)));
+    }
+}
@@ -0,0 +1,68 @@
+package com.orangeandbronze.enlistment.domain;
+
+import org.junit.jupiter.api.*;
+import org.springframework.jdbc.core.*;
+
+import java.util.*;
+import java.util.stream.*;
+
+import static com.orangeandbronze.enlistment.domain.TestUtils.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SeatAllocatorTest {
+
+    private final Subject math = new Subject("Math");
+    private final Subject econ = new Subject("Econ");
+    private final Subject psych = new Subject("Psych");
+    private final SeatAllocator allocator = new SeatAllocator(mock(StudentRepository.class), mock(SectionRepository.class),
+            mock(WishLists.class), new PrerequisiteGraph(List.of(math, econ, psych)), mock(JdbcTemplate.class));
+
+    @Test
+    void allocate_contested_section_goes_by_lottery_order() {
+        // Given a one-seat section & a roomy one, wished for by three students in that order, drawn 3, 1, 2
+        Section small = new Section("A", math, MTH830to10, new Room("Small", 1), newFaculty(1));
+        Section roomy = new Section("B", econ, TF830to10, new Room("Roomy", 10), newFaculty(2));
+        Student student1 = newStudent(1);
+        Student student2 = newStudent(2);
+        Student student3 = newStudent(3);
+        Map<Integer, List<Section>> wishes = Map.of(1, List.of(small, roomy), 2, List.of(small, roomy),
+                3, List.of(small, roomy));
+        // When seats are allocated
+        SeatAllocator.Allocation allocation = allocator.allocate(List.of(student3, student1, student2), wishes);
+        // Then only the first drawn gets the one seat, everyone gets the roomy section & the others' wishes are rejected
+        assertAll(
+                () -> assertEquals(List.of(3), allocation.getEnlisted().get("A")),
+                () -> assertEquals(List.of(3, 1, 2), allocation.getEnlisted().get("B")),
+                () -> assertEquals(4, allocation.size()),
+                () -> assertEquals(1, small.getNumberOfStudents()),
+                () -> assertEquals(3, roomy.getNumberOfStudents()),
+                () -> assertTrue(student3.getSections().containsAll(List.of(small, roomy))),
+                () -> assertEquals(Set.of(roomy), new HashSet<>(student1.getSections())),
+                () -> assertEquals(List.of(1, 2), allocation.getRejected().stream()
+                        .map(AllocationReport.RejectedWish::getStudentNumber).collect(Collectors.toList())),
+                () -> assertTrue(allocation.getRejected().stream().allMatch(wish -> wish.getSectionId().equals("A")))
+        );
+    }
+
+    @Test
+    void allocate_rejects_wishes_that_conflict_with_higher_ranked_ones() {
+        // Given a student wishing for a section, then one at the same time, then one of the same subject
+        Section first = new Section("A", math, MTH830to10, new Room("R1", 10), newFaculty(1));
+        Section sameTime = new Section("B", psych, MTH830to10, new Room("R2", 10), newFaculty(2));
+        Section sameSubject = new Section("C", math, TF10to1130, new Room("R3", 10), newFaculty(3));
+        Student student = newStudent(1);
+        // When seats are allocated
+        SeatAllocator.Allocation allocation = allocator.allocate(List.of(student),
+                Map.of(1, List.of(first, sameTime, sameSubject)));
+        // Then only the first wish is granted & no seats are taken in the others
+        assertAll(
+                () -> assertEquals(Map.of("A", List.of(1)), allocation.getEnlisted()),
+                () -> assertEquals(List.of("B", "C"), allocation.getRejected().stream()
+                        .map(AllocationReport.RejectedWish::getSectionId).sorted().collect(Collectors.toList())),
+                () -> assertEquals(0, sameTime.getNumberOfStudents()),
+                () -> assertEquals(0, sameSubject.getNumberOfStudents()),
+                () -> assertEquals(List.of(first), new ArrayList<>(student.getSections()))
+        );
+    }
+}
@@ -0,0 +1,107 @@
+package com.orangeandbronze.enlistment.domain;
+
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.stream.*;
+
+import static com.orangeandbronze.enlistment.domain.TestUtils.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SectionCatalogTest {
+
+    private final SectionRepository sectionRepo = mock(SectionRepository.class);
+
+    @BeforeEach
+    void sectionsInTheDatabase() {
+        // returned out of sectionId order, as the database's collation may sort them differently
+        when(sectionRepo.findAllSectionSummaries()).thenReturn(List.of(summary("D"), summary("A"), summary("C"),
+                summary("B")));
+        when(sectionRepo.findSeatsTaken(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> sectionIds = invocation.getArgument(0);
+            return sectionIds.stream().collect(Collectors.toMap(sectionId -> sectionId, sectionId -> 7));
+        });
+    }
+
+    @Test
+    void findSections_page_w_excluded_sections_skipped_and_fresh_seat_counts() {
+        // Given a catalog of sections A to D, each w/ 7 seats taken in the DB
+        SectionCatalog catalog = new SectionCatalog(sectionRepo, 60);
+        // When the first page of 2 is asked for, excluding B
+        SectionPage page = catalog.findSections(page(null, 2), Set.of("B"));
+        // Then the page should have A & C w/ their seat counts from the DB, only theirs read, & go on after C
+        assertAll(
+                () -> assertEquals(List.of("A", "C"), sectionIds(page)),
+                () -> assertTrue(page.getSections().stream().allMatch(section -> section.getNumberOfStudents() == 7)),
+                () -> verify(sectionRepo).findSeatsTaken(List.of("A", "C")),
+                () -> assertEquals("C", page.getNextAfter())
+        );
+    }
+
+    @Test
+    void findSections_after_a_section_no_longer_in_the_catalog() {
+        // Given a catalog of sections A to D
+        SectionCatalog catalog = new SectionCatalog(sectionRepo, 60);
+        // When the page after "BB", which isn't a section, is asked for
+        SectionPage page = catalog.findSections(page("BB", 2), Set.of());
+        // Then the page should start at the next section, & be the last
+        assertAll(
+                () -> assertEquals(List.of("C", "D"), sectionIds(page)),
+                () -> assertFalse(page.hasNext())
+        );
+    }
+
+    @Test
+    void findSections_loaded_once_until_invalidated() {
+        // Given a catalog
+        SectionCatalog catalog = new SectionCatalog(sectionRepo, 60);
+        // When pages are asked for twice, then again after the catalog is invalidated
+        catalog.findSections(page(null, 2), Set.of());
+        catalog.findSections(page("B", 2), Set.of());
+        catalog.invalidate();
+        catalog.findSections(page(null, 2), Set.of());
+        // Then the sections should be loaded from the DB only the first time & after invalidating
+        verify(sectionRepo, times(2)).findAllSectionSummaries();
+    }
+
+    @Test
+    void findSections_rebuilt_once_max_age_passed() {
+        // Given a catalog whose snapshot is kept at most 60 seconds
+        AtomicLong now = new AtomicLong();
+        SectionCatalog catalog = new SectionCatalog(sectionRepo, 60, now::get);
+        // When pages are asked for right away, 59 seconds later & 60 seconds later
+        catalog.findSections(page(null, 2), Set.of());
+        now.set(TimeUnit.SECONDS.toNanos(59));
+        catalog.findSections(page(null, 2), Set.of());
+        now.set(TimeUnit.SECONDS.toNanos(60));
+        catalog.findSections(page(null, 2), Set.of());
+        // Then the sections should be loaded again only once the snapshot is 60 seconds old
+        verify(sectionRepo, times(2)).findAllSectionSummaries();
+    }
+
+    @Test
+    void findSections_filtered_listing_rejected() {
+        // Given a catalog
+        SectionCatalog catalog = new SectionCatalog(sectionRepo, 60);
+        // When a listing filtered by subject is asked for
+        SectionFilter filter = new SectionFilter(null, DEFAULT_SUBJECT.toString(), null, null, null, null, null, null);
+        // Then it should be rejected, as only the database can filter
+        assertThrows(IllegalArgumentException.class, () -> catalog.findSections(filter, Set.of()));
+    }
+
+    private static SectionSummary summary(String sectionId) {
+        return new SectionSummary(sectionId, DEFAULT_SUBJECT.toString(), MTH830to10, DEFAULT_ROOM_NAME, DEFAULT_ROOM_CAPACITY,
+                0, "x x");
+    }
+
+    private static SectionFilter page(String after, int pageSize) {
+        return new SectionFilter(null, null, null, null, null, null, after, pageSize);
+    }
+
+    private static List<String> sectionIds(SectionPage page) {
+        return page.getSections().stream().map(SectionSummary::getSectionId).collect(Collectors.toList());
+    }
+}
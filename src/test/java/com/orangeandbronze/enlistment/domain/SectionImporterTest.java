@@ -0,0 +1,85 @@
+package com.orangeandbronze.enlistment.domain;
+
+import org.junit.jupiter.api.*;
+import org.springframework.jdbc.core.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.stream.*;
+
+import static com.orangeandbronze.enlistment.domain.TestUtils.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SectionImporterTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importSections_rejects_invalid_lines_and_inserts_the_rest() {
+        // Given an importer w/ a subject, two rooms & two instructors, and no sections yet in the database
+        SubjectRepository subjectRepo = mock(SubjectRepository.class);
+        when(subjectRepo.findAll()).thenReturn(List.of(DEFAULT_SUBJECT));
+        RoomRepository roomRepo = mock(RoomRepository.class);
+        when(roomRepo.findAll()).thenReturn(List.of(new Room("R1", 10), new Room("R2", 10)));
+        FacultyRepository facultyRepo = mock(FacultyRepository.class);
+        when(facultyRepo.findAll()).thenReturn(List.of(newFaculty(1), newFaculty(2)));
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        List<String> inserted = new ArrayList<>();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            ((List<Object[]>) invocation.getArgument(1)).forEach(row -> inserted.add((String) row[0]));
+            return new int[0];
+        });
+        SectionImporter importer = new SectionImporter(subjectRepo, roomRepo, facultyRepo, jdbcTemplate);
+        String csv = SectionImporter.HEADER + "\n" +
+                "A,DefaultSubject,MTH,08:30,10:00,R1,1\n" +
+                "B,DefaultSubject,MTH,09:00,10:00,R1,2\n" + // same room as A, overlapping
+                "C,DefaultSubject,MTH,09:00,10:00,R2,1\n" + // same instructor as A, overlapping
+                "D,DefaultSubject,TF,08:30,10:00,R1,1\n" +
+                "A,DefaultSubject,WS,08:30,10:00,R2,2\n" + // duplicate sectionId
+                "E,NoSuchSubject,WS,08:30,10:00,R2,2\n" +
+                "F,DefaultSubject,XYZ,08:30,10:00,R2,2\n";
+        // When the CSV is imported
+        ImportReport report = importer.importSections(new StringReader(csv));
+        // Then only the valid lines should be inserted, and every other line reported w/ why it was rejected
+        assertAll(
+                () -> assertEquals(List.of("A", "D"), inserted),
+                () -> assertEquals(7, report.getLinesRead()),
+                () -> assertEquals(2, report.getImported()),
+                () -> assertEquals(List.of(3, 4, 6, 7, 8), report.getRejected().stream()
+                        .map(ImportReport.RejectedLine::getLineNumber).collect(Collectors.toList())),
+                () -> assertEquals(List.of(
+                        "Period overlap between this: 08:30 - 10:00 & other: 09:00 - 10:00",
+                        "Section A & new section C cannot have the same instructor #1 as they have overlapping schedules",
+                        "A section with section id A already exists.",
+                        "No subject found with subjectId NoSuchSubject",
+                        "days must be one of [MTH, TF, WS], was: XYZ"
+                ), report.getRejected().stream().map(ImportReport.RejectedLine::getReason).collect(Collectors.toList()))
+        );
+    }
+
+    @Test
+    void importSections_checks_lines_wo_adding_sections_to_their_rooms() {
+        // Given an importer w/ a subject, a room & an instructor, and no sections yet in the database
+        SubjectRepository subjectRepo = mock(SubjectRepository.class);
+        when(subjectRepo.findAll()).thenReturn(List.of(DEFAULT_SUBJECT));
+        Room room = new Room("R1", 10);
+        RoomRepository roomRepo = mock(RoomRepository.class);
+        when(roomRepo.findAll()).thenReturn(List.of(room));
+        FacultyRepository facultyRepo = mock(FacultyRepository.class);
+        when(facultyRepo.findAll()).thenReturn(List.of(newFaculty(1)));
+        SectionImporter importer = new SectionImporter(subjectRepo, roomRepo, facultyRepo, mock(JdbcTemplate.class));
+        String csv = SectionImporter.HEADER + "\n" +
+                "A,DefaultSubject,MTH,08:30,10:00,R1,1\n" +
+                "B-1,DefaultSubject,TF,08:30,10:00,R1,1\n"; // not alphanumeric
+        // When the CSV is imported
+        ImportReport report = importer.importSections(new StringReader(csv));
+        // Then the bad sectionId should be rejected like when creating one section, & the room shouldn't have kept
+        // section A, so a section overlapping it can still be added to the room in memory
+        assertAll(
+                () -> assertEquals(1, report.getImported()),
+                () -> assertEquals(List.of("sectionId must be alphanumeric, was: B-1"), report.getRejected().stream()
+                        .map(ImportReport.RejectedLine::getReason).collect(Collectors.toList())),
+                () -> assertDoesNotThrow(() -> new Section("Z", DEFAULT_SUBJECT, MTH830to10, room, newFaculty(2)))
+        );
+    }
+}
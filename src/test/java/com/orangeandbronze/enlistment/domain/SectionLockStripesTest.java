@@ -0,0 +1,65 @@
+package com.orangeandbronze.enlistment.domain;
+
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SectionLockStripesTest {
+
+    @Test
+    void get_same_lock_for_every_copy_of_a_section() {
+        // Given the stripes
+        SectionLockStripes stripes = new SectionLockStripes(16);
+        // When the lock is looked up for two separately loaded copies of section ABC's id
+        String sectionId = new String("ABC");
+        String otherCopy = new String("ABC");
+        // Then both should get the same lock
+        assertSame(stripes.get(sectionId), stripes.get(otherCopy));
+    }
+
+    @Test
+    void get_spreads_similar_section_ids_across_stripes() {
+        // Given the stripes
+        SectionLockStripes stripes = new SectionLockStripes(16);
+        // When the locks are looked up for sections whose ids differ only in their last character
+        Set<Object> locks = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (char c = 'A'; c <= 'Z'; c++) {
+            locks.add(stripes.get("SEC" + c));
+        }
+        // Then they should land on more than a few stripes
+        assertTrue(locks.size() >= 8, "stripes used: " + locks.size());
+    }
+
+    @Test
+    void getAll_each_stripe_once_in_stripe_order() {
+        // Given the stripes, & sections w/ ids that land on various stripes, some sharing one
+        SectionLockStripes stripes = new SectionLockStripes(4);
+        List<String> sectionIds = new ArrayList<>();
+        for (char c = 'Z'; c >= 'A'; c--) {
+            sectionIds.add("SEC" + c);
+        }
+        // When their locks are looked up together
+        List<?> locks = stripes.getAll(sectionIds);
+        // Then each stripe used should be there once, in the same order whatever the order of the sectionIds
+        Collections.reverse(sectionIds);
+        assertAll(
+                () -> assertEquals(4, locks.size()),
+                () -> assertEquals(4, new HashSet<>(locks).size()),
+                () -> assertEquals(locks, stripes.getAll(sectionIds))
+        );
+    }
+
+    @Test
+    void size_rounded_up_to_a_power_of_two() {
+        // Given & When stripes are created w/ various requested sizes
+        // Then the table should be the next power of two, so a stripe is picked by masking the hash
+        assertAll(
+                () -> assertEquals(1, new SectionLockStripes(1).size()),
+                () -> assertEquals(1024, new SectionLockStripes(1000).size()),
+                () -> assertEquals(1024, new SectionLockStripes(1024).size()),
+                () -> assertThrows(IllegalArgumentException.class, () -> new SectionLockStripes(0))
+        );
+    }
+}
@@ -0,0 +1,59 @@
+package com.orangeandbronze.enlistment.domain;
+
+import org.junit.jupiter.api.*;
+import org.springframework.dao.*;
+
+import java.sql.*;
+import java.util.*;
+
+import static com.orangeandbronze.enlistment.domain.TestUtils.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SectionRepositoryTest {
+
+    private final Section section = new Section("NEW", DEFAULT_SUBJECT, MTH830to10, new Room("X", 10), newFaculty(1));
+
+    @Test
+    void create_room_overlap_not_found_in_memory_still_a_schedule_conflict() {
+        // Given a database that rejects the section through the room's exclusion constraint, where the in-memory
+        // re-check finds no overlapping section in the room
+        SectionRepository sectionRepo = rejectingWith(SectionRepository.EXCLUSION_VIOLATION_SQL_STATE,
+                SectionRepository.ROOM_SCHEDULE_CONSTRAINT);
+        // When the section is created
+        // Then it should be rejected as a schedule conflict, not w/ the database's exception
+        assertThrows(ScheduleConflictException.class, () -> sectionRepo.create(section));
+    }
+
+    @Test
+    void create_instructor_overlap_not_found_in_memory_still_a_faculty_conflict() {
+        // Given a database that rejects the section through the instructor's exclusion constraint, where the in-memory
+        // re-check finds no overlapping section of the instructor
+        SectionRepository sectionRepo = rejectingWith(SectionRepository.EXCLUSION_VIOLATION_SQL_STATE,
+                SectionRepository.INSTRUCTOR_SCHEDULE_CONSTRAINT);
+        // When the section is created
+        // Then it should be rejected as a faculty conflict
+        assertThrows(FacultyConflictException.class, () -> sectionRepo.create(section));
+    }
+
+    @Test
+    void create_section_id_taken_concurrently() {
+        // Given a database that rejects the section because another section w/ its sectionId was just inserted
+        SectionRepository sectionRepo = rejectingWith(SectionRepository.UNIQUE_VIOLATION_SQL_STATE,
+                SectionRepository.PRIMARY_KEY_CONSTRAINT);
+        // When the section is created
+        EnlistmentException e = assertThrows(EnlistmentException.class, () -> sectionRepo.create(section));
+        // Then it should be rejected as already existing
+        assertEquals("A section with section id NEW already exists.", e.getMessage());
+    }
+
+    private SectionRepository rejectingWith(String sqlState, String constraint) {
+        SectionRepository sectionRepo = mock(SectionRepository.class, CALLS_REAL_METHODS);
+        doThrow(new DataIntegrityViolationException("could not execute statement",
+                new SQLException("ERROR: violates constraint \"" + constraint + "\"", sqlState)))
+                .when(sectionRepo).saveAndFlush(section);
+        doReturn(List.of()).when(sectionRepo).findByRoom(any());
+        doReturn(List.of()).when(sectionRepo).findByInstructor(any());
+        return sectionRepo;
+    }
+}
@@ -0,0 +1,129 @@
+package com.orangeandbronze.enlistment.domain;
+
+import io.micrometer.core.instrument.simple.*;
+import org.junit.jupiter.api.*;
+import org.springframework.transaction.support.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class StripedSectionLockProviderTest {
+
+    @Test
+    void lock_excludes_other_transactions_on_the_same_section_until_the_transaction_completes() throws Exception {
+        // Given a provider, and a transaction on this thread holding the lock on section ABC
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        StripedSectionLockProvider sectionLocks = new StripedSectionLockProvider(meterRegistry, mock(HotSections.class),
+                new SectionLockStripes(16));
+        TransactionSynchronizationManager.initSynchronization();
+        sectionLocks.lock("ABC");
+        // When a transaction on another thread locks the same section
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch locked = new CountDownLatch(1);
+        Future<?> other = executor.submit(() -> {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                sectionLocks.lock("ABC");
+                locked.countDown();
+            } finally {
+                complete();
+            }
+        });
+        // Then it should only get the lock once this thread's transaction completes
+        try {
+            assertFalse(locked.await(200, TimeUnit.MILLISECONDS));
+            complete();
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+            other.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertAll(
+                () -> assertEquals(2, meterRegistry.get("enlistment.section.lock.wait").timer().count()),
+                () -> assertEquals(2, meterRegistry.get("enlistment.section.lock.hold").timer().count())
+        );
+    }
+
+    @Test
+    void lock_without_a_transaction() {
+        // Given a provider, & no transaction on this thread
+        StripedSectionLockProvider sectionLocks = new StripedSectionLockProvider(new SimpleMeterRegistry(), mock(HotSections.class),
+                new SectionLockStripes(16));
+        // When a section is locked
+        // Then it should be refused, as there is nothing to release the lock
+        assertThrows(IllegalArgumentException.class, () -> sectionLocks.lock("ABC"));
+    }
+
+    @Test
+    void lockAll_sections_on_the_same_stripe_take_its_lock_once() {
+        // Given a provider w/ a single stripe, so sections ABC & DEF share a lock, & a transaction on this thread
+        SectionLockStripes stripes = new SectionLockStripes(1);
+        StripedSectionLockProvider sectionLocks = new StripedSectionLockProvider(new SimpleMeterRegistry(),
+                mock(HotSections.class), stripes);
+        ReentrantLock stripe = stripes.get("ABC");
+        TransactionSynchronizationManager.initSynchronization();
+        // When both sections are locked together
+        sectionLocks.lockAll(List.of("DEF", "ABC"));
+        // Then their shared lock should be taken once, & released when the transaction completes
+        int holdCount = stripe.getHoldCount();
+        complete();
+        assertAll(
+                () -> assertEquals(1, holdCount),
+                () -> assertFalse(stripe.isLocked())
+        );
+    }
+
+    @Test
+    void lockAll_sections_sharing_stripes_crosswise_no_deadlock() throws Exception {
+        // Given a provider w/ two stripes, & sections A < B and C < D where A & D share a stripe, and B & C the other
+        SectionLockStripes stripes = new SectionLockStripes(2);
+        StripedSectionLockProvider sectionLocks = new StripedSectionLockProvider(new SimpleMeterRegistry(),
+                mock(HotSections.class), stripes);
+        List<String> onFirst = new ArrayList<>();
+        List<String> onSecond = new ArrayList<>();
+        for (int i = 0; onFirst.size() < 2 || onSecond.size() < 2; i++) {
+            String sectionId = "SEC" + i;
+            (stripes.get(sectionId) == stripes.get("SEC0") ? onFirst : onSecond).add(sectionId);
+        }
+        List<String> first = List.of(onFirst.get(0), onSecond.get(0));
+        List<String> second = List.of(onSecond.get(1), onFirst.get(1));
+        // When two transactions lock their pair of sections together, over & over, at the same time
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (List<String> sectionIds : List.of(first, second)) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 100_000; i++) {
+                        TransactionSynchronizationManager.initSynchronization();
+                        try {
+                            sectionLocks.lockAll(sectionIds);
+                        } finally {
+                            complete();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            // Then both should finish, each taking the stripes in stripe order instead of its sections' order
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /** What the transaction manager does when a transaction commits **/
+    private static void complete() {
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+}
@@ -0,0 +1,49 @@
+package com.orangeandbronze.enlistment.domain;
+
+import org.junit.jupiter.api.*;
+import org.springframework.jdbc.core.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.stream.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class StudentImporterTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importStudents_rejects_invalid_lines_and_inserts_the_rest_in_order() {
+        // Given an importer w/ two subjects, and student #1 already in the database
+        SubjectRepository subjectRepo = mock(SubjectRepository.class);
+        when(subjectRepo.findAll()).thenReturn(List.of(new Subject("Math1"), new Subject("Math2")));
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForList(anyString(), eq(Integer.class))).thenReturn(List.of(1));
+        List<String> inserted = new ArrayList<>();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            ((List<Object[]>) invocation.getArgument(1)).forEach(row -> inserted.add(Arrays.toString(row)));
+            return new int[0];
+        });
+        StudentImporter importer = new StudentImporter(subjectRepo, jdbcTemplate);
+        String csv = StudentImporter.HEADER + "\n" +
+                "3,Alex,Karev,Math1;Math2\n" +
+                "2,Meredith,Grey,\n" +
+                "1,Derek,Shepherd,\n" + // already in the database
+                "x,Richard,Webber,\n" +
+                "4, ,Bailey,\n" +
+                "5,Owen,Hunt,Chem1\n";
+        // When the CSV is imported
+        ImportReport report = importer.importStudents(new StringReader(csv));
+        // Then the valid students should be inserted in student number order before their subjects taken,
+        // and every other line reported w/ why it was rejected
+        assertAll(
+                () -> assertEquals(List.of("[2, Meredith, Grey]", "[3, Alex, Karev]", "[3, Math1]", "[3, Math2]"), inserted),
+                () -> assertEquals(2, report.getImported()),
+                () -> assertEquals(List.of(4, 5, 6, 7), report.getRejected().stream()
+                        .map(ImportReport.RejectedLine::getLineNumber).collect(Collectors.toList())),
+                () -> assertEquals("A student with student number 1 already exists.", report.getRejected().get(0).getReason()),
+                () -> assertEquals("No subject found with subjectId Chem1", report.getRejected().get(3).getReason())
+        );
+    }
+}
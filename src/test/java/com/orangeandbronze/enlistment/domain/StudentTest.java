@@ -43,6 +43,32 @@ class StudentTest {
         assertThrows(ScheduleConflictException.class, () -> student.enlist(sec2));
     }
 
+    @Test
+    void enlist_same_period_different_days() {
+        // Given a student & two sections w/ same period but different days
+        Student student = newDefaultStudent();
+        Section sec1 = new Section("A", new Subject("C"), MTH830to10, new Room("X", 10), newFaculty(1));
+        Section sec2 = new Section("B", new Subject("D"), TF830to10, new Room("Y", 10), newFaculty(2));
+        // When the student enlists in both sections
+        student.enlist(sec1);
+        student.enlist(sec2);
+        // Then both sections should be found in the student
+        assertTrue(student.getSections().containsAll(List.of(sec1, sec2)));
+    }
+
+    @Test
+    void enlist_after_canceling_conflicting_section() {
+        // Given a student enlisted in a section, and another section w/ same sked
+        Section sec1 = new Section("A", new Subject("C"), MTH830to10, new Room("X", 10), newFaculty(1));
+        Section sec2 = new Section("B", new Subject("D"), MTH830to10, new Room("Y", 10), newFaculty(2));
+        Student student = newStudent(1, List.of(sec1));
+        // When the student cancels the first section then enlists in the second
+        student.cancel(sec1);
+        student.enlist(sec2);
+        // Then only the second section should be found in the student
+        assertEquals(List.of(sec2), List.copyOf(student.getSections()));
+    }
+
     @Test
     void enlist_within_room_capacity() {
         // Given two students and one section with room capacity 5
@@ -227,5 +253,114 @@ class StudentTest {
         assertThrows(PrereqMissingException.class, () -> student.enlist(section));
     }
 
+    @Test
+    void enlistAll_sections_no_conflict() {
+        // Given a student enlisted in one section, & two new sections that conflict w/ neither it nor each other
+        Section enlisted = new Section("A", new Subject("C"), MTH830to10, new Room("X", 10), newFaculty(1));
+        Student student = newStudent(1, List.of(enlisted));
+        Section sec1 = new Section("B", new Subject("D"), TF830to10, new Room("Y", 10), newFaculty(2));
+        Section sec2 = new Section("E", new Subject("F"), TF10to1130, new Room("Z", 10), newFaculty(3));
+        // When the student enlists in both new sections at once
+        Map<Section, EnlistmentException> rejections = student.enlistAll(List.of(sec1, sec2),
+                new PrerequisiteGraph(List.of(new Subject("C"), new Subject("D"), new Subject("F"))));
+        // Then none should be rejected, & the student should be enlisted in all three sections
+        assertAll(
+                () -> assertTrue(rejections.isEmpty()),
+                () -> assertEquals(Set.of(enlisted, sec1, sec2), new HashSet<>(student.getSections())),
+                () -> assertEquals(1, sec1.getNumberOfStudents()),
+                () -> assertEquals(1, sec2.getNumberOfStudents())
+        );
+    }
 
+    @Test
+    void enlistAll_new_sections_conflicting_with_each_other() {
+        // Given a student, & three new sections where two of them have the same schedule
+        Student student = newDefaultStudent();
+        Section sec1 = new Section("A", new Subject("C"), MTH830to10, new Room("X", 10), newFaculty(1));
+        Section sec2 = new Section("B", new Subject("D"), MTH830to10, new Room("Y", 10), newFaculty(2));
+        Section sec3 = new Section("E", new Subject("F"), TF830to10, new Room("Z", 10), newFaculty(3));
+        // When the student enlists in all three at once
+        Map<Section, EnlistmentException> rejections = student.enlistAll(List.of(sec1, sec2, sec3),
+                new PrerequisiteGraph(List.of(new Subject("C"), new Subject("D"), new Subject("F"))));
+        // Then only the conflicting one should be rejected, & the student should be enlisted in none of them
+        assertAll(
+                () -> assertEquals(Set.of(sec2), rejections.keySet()),
+                () -> assertTrue(rejections.get(sec2) instanceof ScheduleConflictException),
+                () -> assertTrue(student.getSections().isEmpty()),
+                () -> assertEquals(0, sec1.getNumberOfStudents()),
+                () -> assertEquals(0, sec3.getNumberOfStudents())
+        );
+    }
+
+    @Test
+    void enlistAll_new_section_same_subject_as_enlisted_section() {
+        // Given a student enlisted in a section, & a new section of the same subject
+        Subject subject = new Subject("C");
+        Section enlisted = new Section("A", subject, MTH830to10, new Room("X", 10), newFaculty(1));
+        Student student = newStudent(1, List.of(enlisted));
+        Section sec1 = new Section("B", subject, TF830to10, new Room("Y", 10), newFaculty(2));
+        // When the student enlists in the new section, along w/ the one already enlisted in
+        Map<Section, EnlistmentException> rejections = student.enlistAll(List.of(enlisted, sec1),
+                new PrerequisiteGraph(List.of(subject)));
+        // Then the new section should be rejected, & the student's sections should be unchanged
+        assertAll(
+                () -> assertTrue(rejections.get(sec1) instanceof SameSubjectException),
+                () -> assertEquals(List.of(enlisted), new ArrayList<>(student.getSections()))
+        );
+    }
+
+    @Test
+    void swap_to_section_w_same_subject_and_schedule_as_old_section() {
+        // Given a student enlisted in two sections, & a new section w/ the same subject & schedule as one of them
+        Subject subject = new Subject("C");
+        Section oldSection = new Section("A", subject, MTH830to10, new Room("X", 10), newFaculty(1));
+        Section other = new Section("B", new Subject("D"), TF830to10, new Room("Y", 10), newFaculty(2));
+        Student student = newStudent(1, List.of(oldSection, other));
+        oldSection.incrementNumberOfStudents();
+        Section newSection = new Section("E", subject, MTH830to10, new Room("Z", 10), newFaculty(3));
+        // When the student swaps the old section for the new one
+        boolean swapped = student.swap(oldSection, newSection, new PrerequisiteGraph(List.of(subject, new Subject("D"))));
+        // Then the new section should replace the old one, & the seat move w/ the student
+        assertAll(
+                () -> assertTrue(swapped),
+                () -> assertEquals(Set.of(other, newSection), new HashSet<>(student.getSections())),
+                () -> assertEquals(0, oldSection.getNumberOfStudents()),
+                () -> assertEquals(1, newSection.getNumberOfStudents())
+        );
+    }
+
+    @Test
+    void validateEnlist_reports_first_rule_broken_without_enlisting() {
+        // Given a student enlisted in a section, & a new section of the same subject on another day
+        Subject subject = new Subject("C");
+        Section enlisted = new Section("A", subject, MTH830to10, new Room("X", 10), newFaculty(1));
+        Student student = newStudent(1, List.of(enlisted));
+        Section newSection = new Section("B", subject, TF830to10, new Room("Y", 10), newFaculty(2));
+        // When enlisting in the new section is validated
+        Violation violation = student.validateEnlist(newSection, new PrerequisiteGraph(List.of(subject)));
+        // Then a same subject violation should be returned, w/o the student's sections or the seats changing
+        assertAll(
+                () -> assertEquals(Violation.Rule.SAME_SUBJECT, violation.getRule()),
+                () -> assertEquals("This section A & other section B have same subject of C", violation.getMessage()),
+                () -> assertEquals(List.of(enlisted), new ArrayList<>(student.getSections())),
+                () -> assertEquals(0, newSection.getNumberOfStudents())
+        );
+    }
+
+    @Test
+    void swap_to_section_conflicting_w_other_enlisted_section() {
+        // Given a student enlisted in two sections, & a new section w/ the same schedule as the one not swapped out
+        Section oldSection = new Section("A", new Subject("C"), MTH830to10, new Room("X", 10), newFaculty(1));
+        Section other = new Section("B", new Subject("D"), TF830to10, new Room("Y", 10), newFaculty(2));
+        Student student = newStudent(1, List.of(oldSection, other));
+        Section newSection = new Section("E", new Subject("C"), TF830to10, new Room("Z", 10), newFaculty(3));
+        // When the student swaps the old section for the new one
+        // Then an exception should be thrown, & the student's sections left unchanged
+        assertAll(
+                () -> assertThrows(ScheduleConflictException.class, () -> student.swap(oldSection, newSection,
+                        new PrerequisiteGraph(List.of(new Subject("C"), new Subject("D"))))),
+                () -> assertEquals(Set.of(oldSection, other), new HashSet<>(student.getSections())),
+                () -> assertEquals(0, newSection.getNumberOfStudents())
+        );
+    }
 }